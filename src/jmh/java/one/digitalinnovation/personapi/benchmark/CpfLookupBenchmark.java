@@ -0,0 +1,101 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.converter.CpfConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a unique-index lookup of the person CPF stored as the former free-form VARCHAR
+ * against the normalized BIGINT key written by {@link CpfConverter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpfLookupBenchmark {
+
+    @Param({"100000"})
+    int rows;
+
+    private final CpfConverter converter = new CpfConverter();
+    private Connection connection;
+    private PreparedStatement byVarchar;
+    private PreparedStatement byBigint;
+    private String[] cpfs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:cpf_lookup_benchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE person_varchar (id BIGINT PRIMARY KEY, cpf VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE person_bigint (id BIGINT PRIMARY KEY, cpf BIGINT NOT NULL UNIQUE)");
+        }
+        cpfs = new String[rows];
+        try (PreparedStatement varchar = connection.prepareStatement("INSERT INTO person_varchar VALUES (?, ?)");
+             PreparedStatement bigint = connection.prepareStatement("INSERT INTO person_bigint VALUES (?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                cpfs[i] = converter.convertToEntityAttribute(1_000_000L + i * 700_001L);
+                varchar.setLong(1, i);
+                varchar.setString(2, cpfs[i]);
+                varchar.addBatch();
+                bigint.setLong(1, i);
+                bigint.setLong(2, converter.convertToDatabaseColumn(cpfs[i]));
+                bigint.addBatch();
+            }
+            varchar.executeBatch();
+            bigint.executeBatch();
+        }
+        byVarchar = connection.prepareStatement("SELECT id FROM person_varchar WHERE cpf = ?");
+        byBigint = connection.prepareStatement("SELECT id FROM person_bigint WHERE cpf = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long lookupByVarcharCpf() throws SQLException {
+        byVarchar.setString(1, nextCpf());
+        return firstId(byVarchar);
+    }
+
+    @Benchmark
+    public long lookupByNumericCpf() throws SQLException {
+        byBigint.setLong(1, converter.convertToDatabaseColumn(nextCpf()));
+        return firstId(byBigint);
+    }
+
+    private String nextCpf() {
+        next = next + 1 == cpfs.length ? 0 : next + 1;
+        return cpfs[next];
+    }
+
+    private long firstId(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+}
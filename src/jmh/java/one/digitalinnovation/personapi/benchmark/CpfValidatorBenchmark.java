@@ -0,0 +1,80 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.validation.CpfValidator;
+import one.digitalinnovation.personapi.validation.ValidCpf;
+import org.hibernate.validator.constraints.br.CPF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Hibernate's {@link CPF} with {@link ValidCpf} through the Bean Validation pipeline, and the raw
+ * {@link CpfValidator} check on its own. Run with {@code -prof gc} to see the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpfValidatorBenchmark {
+
+    @Param({"44453213387", "44453213388", "444.532.133-87"})
+    String cpf;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean hibernateCpf() {
+        return validator.validateValue(HibernateCpfHolder.class, "cpf", cpf).isEmpty();
+    }
+
+    @Benchmark
+    public boolean validCpf() {
+        return validator.validateValue(ValidCpfHolder.class, "cpf", cpf).isEmpty();
+    }
+
+    @Benchmark
+    public boolean cpfValidator() {
+        return CpfValidator.isValid(cpf);
+    }
+
+    static class HibernateCpfHolder {
+
+        @CPF
+        String cpf;
+    }
+
+    static class ValidCpfHolder {
+
+        @ValidCpf
+        String cpf;
+    }
+}
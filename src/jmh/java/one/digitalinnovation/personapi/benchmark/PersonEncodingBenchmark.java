@@ -0,0 +1,119 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.mapper.PersonProtoMapper;
+import one.digitalinnovation.personapi.protobuf.PersonProtos;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON with the binary formats negotiated by {@code PersonController} (CBOR, Smile, Protobuf) for a single
+ * {@link PersonDTO} and for a page of them. Encoding includes the DTO to message mapping for Protobuf, as the
+ * server does; decoding ends in {@link PersonDTO}s for every format. The {@code bytes} counter divided by the score
+ * gives the payload size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    String format;
+
+    @Param({"1", "50", "500"})
+    int size;
+
+    private ObjectWriter writer;
+    private ObjectReader singleReader;
+    private ObjectReader listReader;
+    private PersonDTO personDTO;
+    private PageImpl<PersonDTO> page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<PersonDTO> personDTOs = PersonFixtures.personDTOs(size);
+        personDTO = personDTOs.get(0);
+        page = new PageImpl<>(personDTOs, PageRequest.of(0, size), size * 10L);
+        if (format.equals("protobuf")) {
+            payload = size == 1 ? PersonProtoMapper.toProto(personDTO).toByteArray()
+                    : PersonProtos.PersonPage.newBuilder().addAllContent(PersonProtoMapper.toProto(personDTOs)).build().toByteArray();
+            return;
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(jsonFactory()).build();
+        writer = objectMapper.writer();
+        singleReader = objectMapper.readerFor(PersonDTO.class);
+        listReader = objectMapper.readerFor(new TypeReference<List<PersonDTO>>() { });
+        payload = size == 1 ? writer.writeValueAsBytes(personDTO) : writer.writeValueAsBytes(personDTOs);
+    }
+
+    @Benchmark
+    public byte[] encode(Payload counter) throws IOException {
+        byte[] encoded;
+        if (writer == null) {
+            encoded = size == 1 ? PersonProtoMapper.toProto(personDTO).toByteArray() : PersonProtoMapper.toProto(page).toByteArray();
+        }
+        else {
+            encoded = size == 1 ? writer.writeValueAsBytes(personDTO) : writer.writeValueAsBytes(page);
+        }
+        counter.bytes += encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        if (writer == null) {
+            return size == 1 ? PersonProtoMapper.toDto(PersonProtos.Person.parseFrom(payload))
+                    : PersonProtoMapper.toDtos(PersonProtos.PersonPage.parseFrom(payload).getContentList());
+        }
+        return size == 1 ? singleReader.readValue(payload) : listReader.readValue(payload);
+    }
+
+    private JsonFactory jsonFactory() {
+        switch (format) {
+            case "cbor": return new CBORFactory();
+            case "smile": return new SmileFactory();
+            default: return new JsonFactory();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.factory.PersonFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class PersonFixtures {
+
+    private PersonFixtures() {
+    }
+
+    static List<Person> persons(int size) {
+        List<Person> persons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Person person = PersonFactory.createPerson();
+            person.setId((long) i + 1);
+            person.setBirthDate(LocalDate.of(1990, 1, 1).plusDays(i));
+            long childId = 1;
+            for (var address : person.getAddresses()) {
+                address.setId(i * 10L + childId++);
+            }
+            for (var phone : person.getPhones()) {
+                phone.setId(i * 10L + childId++);
+            }
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    static List<PersonDTO> personDTOs(int size) {
+        List<PersonDTO> personDTOs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PersonDTO personDTO = PersonDTOFactory.createPersonDTO();
+            personDTO.setId((long) i + 1);
+            personDTO.setBirthDate(LocalDate.of(1990, 1, 1).plusDays(i));
+            personDTOs.add(personDTO);
+        }
+        return personDTOs;
+    }
+
+    static String validCpf(int seed) {
+        int[] digits = new int[11];
+        long base = 100_000_000L + seed * 7_919L;
+        for (int i = 8; i >= 0; i--) {
+            digits[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digits[9] = checkDigit(digits, 9);
+        digits[10] = checkDigit(digits, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digit : digits) {
+            cpf.append(digit);
+        }
+        return cpf.toString();
+    }
+
+    private static int checkDigit(int[] digits, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += digits[i] * (length + 1 - i);
+        }
+        int digit = sum * 10 % 11;
+        return digit == 10 ? 0 : digit;
+    }
+}
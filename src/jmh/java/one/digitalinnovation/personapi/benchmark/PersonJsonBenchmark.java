@@ -0,0 +1,74 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for Jackson serialization of {@link PersonDTO}, alone and as the {@code Page} returned by
+ * {@code GET /api/v1/person}, using an ObjectMapper configured like Spring Boot's.
+ * Run with {@code -prof gc} to get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonJsonBenchmark {
+
+    @Param({"1", "50", "500"})
+    int size;
+
+    private ObjectWriter writer;
+    private ObjectReader singleReader;
+    private ObjectReader listReader;
+    private PersonDTO personDTO;
+    private PageImpl<PersonDTO> page;
+    private byte[] personJson;
+    private byte[] contentJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        singleReader = objectMapper.readerFor(PersonDTO.class);
+        listReader = objectMapper.readerFor(new TypeReference<List<PersonDTO>>() { });
+        List<PersonDTO> personDTOs = PersonFixtures.personDTOs(size);
+        personDTO = personDTOs.get(0);
+        page = new PageImpl<>(personDTOs, PageRequest.of(0, size), size * 10L);
+        personJson = writer.writeValueAsBytes(personDTO);
+        contentJson = writer.writeValueAsBytes(personDTOs);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return size == 1 ? writer.writeValueAsBytes(personDTO) : writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return size == 1 ? singleReader.readValue(personJson) : listReader.readValue(contentJson);
+    }
+}
@@ -0,0 +1,59 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.mapper.PersonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link PersonMapper} on a single record and on 50/500-element pages.
+ * Run with {@code -prof gc} to get the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonMappingBenchmark {
+
+    @Param({"1", "50", "500"})
+    int size;
+
+    private List<Person> persons;
+    private List<PersonDTO> personDTOs;
+
+    @Setup
+    public void setUp() {
+        persons = PersonFixtures.persons(size);
+        personDTOs = PersonFixtures.personDTOs(size);
+    }
+
+    @Benchmark
+    public void toDto(Blackhole blackhole) {
+        for (Person person : persons) {
+            blackhole.consume(PersonMapper.INSTANCE.toDto(person));
+        }
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole blackhole) {
+        for (PersonDTO personDTO : personDTOs) {
+            blackhole.consume(PersonMapper.INSTANCE.toEntity(personDTO));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.PersonapiApplication;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.service.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking v1 endpoints (Tomcat worker per request, JPA over JDBC) with the reactive v2 endpoints
+ * (R2DBC, request thread released while the query runs) over real HTTP at high client concurrency.
+ * Tomcat runs with a small worker pool and the person cache is disabled, so both stacks hit the database;
+ * Throughput gives requests per millisecond and the SampleTime percentiles include p99.
+ * The v1 calls expand addresses and phones to match the v2 payload; {@code servletSummaryPage} is the default
+ * v1 list without collections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(128)
+@Fork(1)
+public class PersonReadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String EXPAND_ALL = "expand=addresses,phones";
+
+    @Param({"1000"})
+    int persons;
+
+    @Param({"16"})
+    int tomcatThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(PersonapiApplication.class,
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--spring.cache.type=none",
+                "--logging.level.root=WARN");
+        List<PersonDTO> personDTOs = PersonFixtures.personDTOs(persons);
+        for (int i = 0; i < persons; i++) {
+            personDTOs.get(i).setCpf(PersonFixtures.validCpf(i));
+        }
+        ids = context.getBean(PersonService.class).insertAll(personDTOs).stream()
+                .mapToLong(PersonBatchResultDTO::getId)
+                .toArray();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int servletFindById() throws IOException, InterruptedException {
+        return get("/api/v1/person/" + randomId() + "?" + EXPAND_ALL);
+    }
+
+    @Benchmark
+    public int reactiveFindById() throws IOException, InterruptedException {
+        return get("/api/v2/person/" + randomId());
+    }
+
+    @Benchmark
+    public int servletPage() throws IOException, InterruptedException {
+        return get("/api/v1/person?size=" + PAGE_SIZE + "&page=" + randomPage() + "&" + EXPAND_ALL);
+    }
+
+    @Benchmark
+    public int servletSummaryPage() throws IOException, InterruptedException {
+        return get("/api/v1/person?size=" + PAGE_SIZE + "&page=" + randomPage());
+    }
+
+    @Benchmark
+    public int reactivePage() throws IOException, InterruptedException {
+        return get("/api/v2/person?size=" + PAGE_SIZE + "&page=" + randomPage());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private int randomPage() {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, persons / PAGE_SIZE));
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
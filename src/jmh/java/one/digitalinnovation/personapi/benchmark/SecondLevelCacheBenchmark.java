@@ -0,0 +1,101 @@
+package one.digitalinnovation.personapi.benchmark;
+
+import one.digitalinnovation.personapi.PersonapiApplication;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.service.PersonService;
+import one.digitalinnovation.personapi.statistics.StatementCounter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures repeated {@link PersonService#findById} with and without the Hibernate second-level cache
+ * ({@code l2cache} profile). Every person is read once during setup and the person cache is disabled, so each call
+ * reaches JPA with the second-level regions already populated; the {@code statements}
+ * counter divided by the score gives the JDBC round trips per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    @Param({"false", "true"})
+    boolean l2cache;
+
+    @Param({"1000"})
+    int persons;
+
+    private ConfigurableApplicationContext context;
+    private PersonService personService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(PersonapiApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.profiles.active=" + (l2cache ? "l2cache" : "default"),
+                "--spring.cache.type=none",
+                "--logging.level.root=WARN");
+        personService = context.getBean(PersonService.class);
+        List<PersonDTO> personDTOs = PersonFixtures.personDTOs(persons);
+        for (int i = 0; i < persons; i++) {
+            personDTOs.get(i).setCpf(PersonFixtures.validCpf(i));
+        }
+        ids = personService.insertAll(personDTOs).stream()
+                .mapToLong(PersonBatchResultDTO::getId)
+                .toArray();
+        for (long id : ids) {
+            personService.findById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PersonDTO findById(RoundTrips roundTrips) {
+        StatementCounter.Counts counts = StatementCounter.start();
+        try {
+            return personService.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        }
+        finally {
+            StatementCounter.stop(counts);
+            roundTrips.statements += counts.getStatements();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RoundTrips {
+
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+}
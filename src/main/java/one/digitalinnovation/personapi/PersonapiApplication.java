@@ -2,12 +2,17 @@ package one.digitalinnovation.personapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class PersonapiApplication {
 
+	public static final int STARTUP_TIMELINE_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(PersonapiApplication.class, args);
+		SpringApplication application = new SpringApplication(PersonapiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_TIMELINE_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,74 @@
+package one.digitalinnovation.personapi.config;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.mapper.PersonMapper;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    public static final String PERSONS = "persons";
+
+    @Bean
+    public CaffeineCacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new PersonCache(name, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return cacheManager;
+    }
+
+    // Callers get their own copy of a cached PersonDTO, and a put never replaces a newer version with an older one,
+    // so a read that loaded before an update committed cannot overwrite the value the update cached.
+    static class PersonCache extends CaffeineCache {
+
+        PersonCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            getNativeCache().asMap().merge(key, toStoreValue(value), PersonCache::newer);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            return super.toStoreValue(copy(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            return copy(super.fromStoreValue(storeValue));
+        }
+
+        private static Object copy(Object value) {
+            return value instanceof PersonDTO ? PersonMapper.INSTANCE.copy((PersonDTO) value) : value;
+        }
+
+        private static Object newer(Object current, Object candidate) {
+            if (current instanceof PersonDTO && candidate instanceof PersonDTO) {
+                Long currentVersion = ((PersonDTO) current).getVersion();
+                Long candidateVersion = ((PersonDTO) candidate).getVersion();
+                if (currentVersion != null && candidateVersion != null && candidateVersion < currentVersion) {
+                    return current;
+                }
+            }
+            return candidate;
+        }
+    }
+
+}
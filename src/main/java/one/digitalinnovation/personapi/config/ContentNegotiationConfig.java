@@ -0,0 +1,33 @@
+package one.digitalinnovation.personapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import one.digitalinnovation.personapi.converter.PersonProtobufHttpMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    @Autowired
+    ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    // Spring registers CBOR and Smile with a plain ObjectMapper; they are rebuilt from Boot's builder so the
+    // spring.jackson settings apply to every format. Binary formats stay after JSON, so Accept: */* still gets JSON.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(new PersonProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,88 @@
+package one.digitalinnovation.personapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import one.digitalinnovation.personapi.datasource.ReadWriteRoutingDataSource;
+import one.digitalinnovation.personapi.datasource.ReplicaLagGuard;
+import one.digitalinnovation.personapi.datasource.ReplicaLagInterceptor;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig implements WebMvcConfigurer {
+
+    @Autowired
+    ObjectProvider<ReplicaLagGuard> replicaLagGuard;
+
+    // Declared explicitly because the JDBC auto-configuration backs off once an R2DBC ConnectionFactory exists.
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty("personapi.datasource.replica-urls")
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties, HikariDataSource primaryDataSource,
+                                                        @Value("${personapi.datasource.replica-urls}") List<String> replicaUrls,
+                                                        ReplicaLagGuard replicaLagGuard) {
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(ReadWriteRoutingDataSource.REPLICA + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, replicaLagGuard);
+    }
+
+    @Bean
+    @ConditionalOnProperty("personapi.datasource.replica-urls")
+    public ReplicaLagGuard replicaLagGuard(@Value("${personapi.datasource.replica-lag:2s}") Duration replicaLag) {
+        return new ReplicaLagGuard(replicaLag, Clock.systemUTC());
+    }
+
+    // The routing key depends on the transaction's read-only flag, which is only set after JPA begins the
+    // transaction, so the physical connection must be fetched lazily on the first statement.
+    @Bean
+    @Primary
+    @ConditionalOnProperty("personapi.datasource.replica-urls")
+    public LazyConnectionDataSourceProxy dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @Profile("!sharded")
+    public ShardRouter shardRouter() {
+        return new ShardRouter(1);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        replicaLagGuard.ifAvailable(guard ->
+                registry.addInterceptor(new ReplicaLagInterceptor(guard)).addPathPatterns("/api/**"));
+    }
+
+}
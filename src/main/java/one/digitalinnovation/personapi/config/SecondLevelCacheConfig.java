@@ -0,0 +1,34 @@
+package one.digitalinnovation.personapi.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+@Configuration
+@Profile("l2cache")
+public class SecondLevelCacheConfig {
+
+    public static final String HIT_RATIO_METRIC = "personapi.cache.region.hit.ratio";
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> Arrays.stream(statistics.getSecondLevelCacheRegionNames()).forEach(region ->
+                Gauge.builder(HIT_RATIO_METRIC, statistics, stats -> hitRatio(stats.getDomainDataRegionStatistics(region)))
+                        .tag("region", region)
+                        .register(registry));
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? 0 : (double) region.getHitCount() / requests;
+    }
+}
@@ -0,0 +1,61 @@
+package one.digitalinnovation.personapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import one.digitalinnovation.personapi.datasource.ShardConnectionProvider;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.datasource.ShardSchemaIntegrator;
+import one.digitalinnovation.personapi.datasource.ShardTenantResolver;
+import org.hibernate.MultiTenancyStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+
+    @Value("${personapi.sharding.urls}")
+    List<String> shardUrls;
+
+    @Bean
+    public ShardRouter shardRouter() {
+        return new ShardRouter(shardUrls.size());
+    }
+
+    @Bean
+    public ShardConnectionProvider shardConnectionProvider(DataSourceProperties properties) {
+        List<DataSource> shards = new ArrayList<>(shardUrls.size());
+        for (int i = 0; i < shardUrls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + i);
+            shard.setJdbcUrl(shardUrls.get(i).trim());
+            shard.setUsername(properties.determineUsername());
+            shard.setPassword(properties.determinePassword());
+            shards.add(shard);
+        }
+        return new ShardConnectionProvider(shards);
+    }
+
+    @Bean
+    public ShardSchemaIntegrator shardSchemaIntegrator(ShardRouter shardRouter) {
+        return new ShardSchemaIntegrator(shardRouter);
+    }
+
+    // Each shard is a Hibernate tenant, so the session opened for a transaction is bound to the shard selected by ShardContext.
+    @Bean
+    public HibernatePropertiesCustomizer shardingCustomizer(ShardConnectionProvider shardConnectionProvider) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT, MultiTenancyStrategy.DATABASE);
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, shardConnectionProvider);
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ShardTenantResolver());
+        };
+    }
+}
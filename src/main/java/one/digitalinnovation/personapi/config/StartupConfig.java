@@ -0,0 +1,20 @@
+package one.digitalinnovation.personapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class StartupConfig {
+
+    // Kept eager under spring.main.lazy-initialization: meters must be bound before the first scrape and the pool
+    // must exist before the warm-up fills it.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerInfrastructure() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MeterRegistry.class, MeterBinder.class, DataSource.class);
+    }
+}
@@ -0,0 +1,46 @@
+package one.digitalinnovation.personapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.personapi.statistics.StatementCountingInspector;
+import one.digitalinnovation.personapi.statistics.StatementCountingIntegrator;
+import one.digitalinnovation.personapi.statistics.StatementMetricsInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Configuration
+public class StatisticsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    ObjectProvider<Integrator> integrators;
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> Stream.concat(Stream.of(new StatementCountingIntegrator()), integrators.orderedStream())
+                            .collect(Collectors.toList()));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new StatementMetricsInterceptor(meters)).addPathPatterns("/api/**"));
+    }
+}
@@ -1,26 +1,97 @@
 package one.digitalinnovation.personapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.ImportJobDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.dto.WriteStatusDTO;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.PreconditionFailedException;
+import one.digitalinnovation.personapi.service.CoalescingPersonService;
+import one.digitalinnovation.personapi.service.PersonImportService;
+import one.digitalinnovation.personapi.service.PersonSearchService;
+import one.digitalinnovation.personapi.service.PersonStatsService;
 import one.digitalinnovation.personapi.service.PersonService;
+import one.digitalinnovation.personapi.service.PersonWriteBehindService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping(value ="/api/v1/person")
 public class PersonController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    private static final int MAX_BULK_DELETE_SIZE = 1000;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    // jobId também compõe o nome do arquivo de rejeitados
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    // W/"<versão>" para a representação completa, W/"<versão>-<expansões>" para as parciais
+    private static final Pattern ENTITY_TAG = Pattern.compile("(?:W/)?\"(\\d{1,18})(?:-[a-z+]+)?\"");
+
     @Autowired
     PersonService personService;
 
+    @Autowired
+    CoalescingPersonService coalescingPersonService;
+
+    @Autowired
+    PersonImportService personImportService;
+
+    @Autowired
+    PersonWriteBehindService personWriteBehindService;
+
+    @Autowired
+    PersonSearchService personSearchService;
+
+    @Autowired
+    PersonStatsService personStatsService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @PostMapping
     public ResponseEntity<PersonDTO> insert(@RequestBody @Valid PersonDTO personDTO){
         personDTO = personService.insert(personDTO);
@@ -29,24 +100,207 @@ public class PersonController {
         return ResponseEntity.created(uri).body(personDTO);
     }
 
+    @PostMapping(value = "/async")
+    public ResponseEntity<WriteStatusDTO> insertAsync(@RequestBody @Valid PersonDTO personDTO){
+        return accepted(personWriteBehindService.submitInsert(personDTO));
+    }
+
+    @PutMapping(value = "/{id}/async")
+    public ResponseEntity<WriteStatusDTO> updateAsync(@RequestBody @Valid PersonDTO personDTO, @PathVariable Long id){
+        return accepted(personWriteBehindService.submitUpdate(id, personDTO));
+    }
+
+    @GetMapping(value = "/async/{ticket}")
+    public ResponseEntity<WriteStatusDTO> findWriteStatus(@PathVariable String ticket){
+        return ResponseEntity.ok(personWriteBehindService.findStatus(ticket));
+    }
+
+    private ResponseEntity<WriteStatusDTO> accepted(WriteStatusDTO writeStatusDTO){
+        URI uri = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/v1/person/async/{ticket}")
+                .buildAndExpand(writeStatusDTO.getTicket()).toUri();
+        return ResponseEntity.accepted().location(uri).body(writeStatusDTO);
+    }
+
+    @PostMapping(value = "/batch")
+    public ResponseEntity<List<PersonBatchResultDTO>> insertAll(@RequestBody List<PersonDTO> personDTOs){
+        return ResponseEntity.ok(personService.insertAll(personDTOs));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportJobDTO> importPersons(@RequestParam(required = false) String jobId,
+                                                      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                      InputStream body){
+        ImportFormat format = ImportFormat.fromMediaType(contentType)
+                .orElseThrow(() -> new InvalidParameterException("Formato de importação não suportado: " + contentType));
+        if (jobId != null && !JOB_ID.matcher(jobId).matches()) {
+            throw new InvalidParameterException("jobId inválido !");
+        }
+        return ResponseEntity.ok(personImportService.importPersons(jobId == null ? UUID.randomUUID().toString() : jobId, format, body));
+    }
+
+    @GetMapping(value = "/import/{jobId}")
+    public ResponseEntity<ImportJobDTO> findImportJob(@PathVariable String jobId){
+        return ResponseEntity.ok(personImportService.findJob(jobId));
+    }
+
     @GetMapping(value = "/{id}")
-    public ResponseEntity<PersonDTO> findById(@PathVariable Long id){
-        return ResponseEntity.ok(personService.findById(id));
+    public ResponseEntity<PersonDTO> findById(@PathVariable Long id,
+                                              @RequestParam(required = false) List<String> expand,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Set<PersonExpansion> expansions = expansions(expand);
+        if (ifNoneMatch != null) {
+            String eTag = eTag(personService.findVersion(id), expansions);
+            if (matchesAny(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        return withETag(coalescingPersonService.findById(id, expansions), expansions);
+    }
+
+    @GetMapping(value = "/search")
+    public ResponseEntity<List<PersonSearchResultDTO>> search(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "10") int limit){
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidParameterException("Limite de busca deve estar entre 1 e " + MAX_SEARCH_RESULTS);
+        }
+        return ResponseEntity.ok(personSearchService.search(q, limit));
+    }
+
+    @GetMapping(value = "/stats")
+    public ResponseEntity<PersonStatsDTO> stats(){
+        return ResponseEntity.ok(personStatsService.stats());
+    }
+
+    @GetMapping(value = "/cpf/{cpf}")
+    public ResponseEntity<PersonDTO> findByCpf(@PathVariable String cpf){
+        return ResponseEntity.ok(personService.findByCpf(cpf));
     }
 
     @GetMapping
-    public ResponseEntity<Page<PersonDTO>> findAll(Pageable pageable ){
-        return ResponseEntity.ok(personService.findAll(pageable));
+    public ResponseEntity<Page<PersonDTO>> findAll(PersonFilterDTO filter, Pageable pageable,
+                                                   @RequestParam(required = false) List<String> expand){
+        return ResponseEntity.ok(coalescingPersonService.findAll(filter, pageable, expansions(expand)));
+    }
+
+    private Set<PersonExpansion> expansions(List<String> expand){
+        Set<PersonExpansion> expansions = EnumSet.noneOf(PersonExpansion.class);
+        if (expand != null) {
+            for (String description : expand) {
+                expansions.add(PersonExpansion.fromDescription(description.trim())
+                        .orElseThrow(() -> new InvalidParameterException("Expansão desconhecida: " + description + " !")));
+            }
+        }
+        return expansions;
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPageDTO<PersonDTO>> findAllAfter(PersonFilterDTO filter,
+                                                                 @RequestParam String after,
+                                                                 @RequestParam(defaultValue = "id") String sort,
+                                                                 @RequestParam(defaultValue = "20") int size,
+                                                                 @RequestParam(defaultValue = "false") boolean count){
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new InvalidParameterException("Tamanho de página deve estar entre 1 e " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(personService.findAllAfter(filter, after, sort, size, count));
+    }
+
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            personService.exportAll(chunk -> writeNdjson(writer, target, chunk));
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            target.flush();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private void writeNdjson(ObjectWriter writer, OutputStream out, List<PersonDTO> chunk){
+        try {
+            for (PersonDTO personDTO : chunk) {
+                writer.writeValue(out, personDTO);
+                out.write('\n');
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @DeleteMapping(value = "/{id}")
-    public ResponseEntity<PersonDTO> delete(@PathVariable Long id){
-        return ResponseEntity.ok(personService.delete(id));
+    public ResponseEntity<PersonDTO> delete(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean returnDeleted){
+        if (returnDeleted) {
+            return ResponseEntity.ok(personService.delete(id));
+        }
+        personService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Void> deleteAll(@RequestParam List<Long> ids){
+        if (ids.size() > MAX_BULK_DELETE_SIZE) {
+            throw new InvalidParameterException("Máximo de " + MAX_BULK_DELETE_SIZE + " ids por requisição");
+        }
+        personService.deleteAllById(ids);
+        return ResponseEntity.noContent().build();
     }
 
     @PutMapping(value = "/{id}")
-    public  ResponseEntity<PersonDTO> update(@RequestBody @Valid PersonDTO personDTO, @PathVariable Long id){
-        return ResponseEntity.ok(personService.update(personDTO, id));
+    public  ResponseEntity<PersonDTO> update(@RequestBody @Valid PersonDTO personDTO, @PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        personDTO.setVersion(ifMatch == null || ifMatch.trim().equals("*") ? null : parseVersion(ifMatch));
+        return withETag(personService.update(personDTO, id), EnumSet.allOf(PersonExpansion.class));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = APPLICATION_MERGE_PATCH_JSON)
+    public ResponseEntity<PersonDTO> patch(@RequestBody JsonNode patch, @PathVariable Long id){
+        return withETag(personService.patch(id, patch), EnumSet.allOf(PersonExpansion.class));
+    }
+
+    // JSON, CBOR, Smile e Protobuf compartilham a mesma tag fraca, por isso a resposta varia por Accept
+    private ResponseEntity<PersonDTO> withETag(PersonDTO personDTO, Set<PersonExpansion> expansions){
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (personDTO.getVersion() != null) {
+            response.eTag(eTag(personDTO.getVersion(), expansions));
+        }
+        return response.body(personDTO);
+    }
+
+    private static String eTag(Long version, Set<PersonExpansion> expansions){
+        if (PersonExpansion.isFull(expansions)) {
+            return "W/\"" + version + "\"";
+        }
+        String representation = expansions.isEmpty() ? "summary"
+                : expansions.stream().map(PersonExpansion::getDescription).collect(Collectors.joining("+"));
+        return "W/\"" + version + "-" + representation + "\"";
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String eTag){
+        String opaqueTag = opaqueTag(eTag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(opaqueTag));
+    }
+
+    private static String opaqueTag(String tag){
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static Long parseVersion(String ifMatch){
+        Matcher tag = ENTITY_TAG.matcher(ifMatch.trim());
+        if (!tag.matches()) {
+            throw new PreconditionFailedException("If-Match inválido !");
+        }
+        return Long.valueOf(tag.group(1));
     }
 
 }
@@ -0,0 +1,45 @@
+package one.digitalinnovation.personapi.controller;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.service.ReactivePersonService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(value ="/api/v2/person")
+@ConditionalOnProperty(value = "personapi.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactivePersonController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Autowired
+    ReactivePersonService reactivePersonService;
+
+    @GetMapping(value = "/{id}")
+    public Mono<ResponseEntity<PersonDTO>> findById(@PathVariable Long id){
+        return reactivePersonService.findById(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Page<PersonDTO>>> findAll(Pageable pageable){
+        if (pageable.getSort().isSorted()) {
+            throw new InvalidParameterException("A API v2 lista apenas por id !");
+        }
+        return reactivePersonService.findAll(pageable).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON)
+    public Flux<PersonDTO> stream(){
+        return reactivePersonService.streamAll();
+    }
+}
@@ -0,0 +1,43 @@
+package one.digitalinnovation.personapi.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class CpfConverter implements AttributeConverter<String, Long> {
+
+    private static final int CPF_LENGTH = 11;
+
+    @Override
+    public Long convertToDatabaseColumn(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > CPF_LENGTH) {
+                    return null;
+                }
+                value = value * 10 + (c - '0');
+            }
+        }
+        return digits == 0 ? null : value;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Long value) {
+        if (value == null) {
+            return null;
+        }
+        char[] cpf = new char[CPF_LENGTH];
+        long remaining = value;
+        for (int i = CPF_LENGTH - 1; i >= 0; i--) {
+            cpf[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return new String(cpf);
+    }
+}
@@ -0,0 +1,90 @@
+package one.digitalinnovation.personapi.converter;
+
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.exception.StandardError;
+import one.digitalinnovation.personapi.mapper.PersonProtoMapper;
+import one.digitalinnovation.personapi.protobuf.PersonProtos;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+public class PersonProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    public PersonProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PersonDTO.class == clazz || CursorPageDTO.class == clazz || Page.class.isAssignableFrom(clazz) || StandardError.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return (resolved.toClass() == PersonDTO.class || isOfPersons(resolved, CursorPageDTO.class)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        Class<?> resolvedClass = resolved.toClass();
+        boolean writable = resolvedClass == PersonDTO.class || resolvedClass == StandardError.class
+                || isOfPersons(resolved, CursorPageDTO.class) || isOfPersons(resolved, Page.class);
+        return writable && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        return readInternal(ResolvableType.forType(type).toClass(), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        if (clazz == PersonDTO.class) {
+            return PersonProtoMapper.toDto(PersonProtos.Person.parseFrom(inputMessage.getBody()));
+        }
+        if (clazz == CursorPageDTO.class) {
+            return PersonProtoMapper.toDto(PersonProtos.PersonCursorPage.parseFrom(inputMessage.getBody()));
+        }
+        throw new HttpMessageNotReadableException("Tipo não suportado em protobuf: " + clazz.getName() + " !", inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        com.google.protobuf.Message message;
+        if (body instanceof PersonDTO) {
+            message = PersonProtoMapper.toProto((PersonDTO) body);
+        }
+        else if (body instanceof Page) {
+            message = PersonProtoMapper.toProto((Page<PersonDTO>) body);
+        }
+        else if (body instanceof CursorPageDTO) {
+            message = PersonProtoMapper.toProto((CursorPageDTO<PersonDTO>) body);
+        }
+        else if (body instanceof StandardError) {
+            message = PersonProtoMapper.toProto((StandardError) body);
+        }
+        else {
+            throw new HttpMessageNotWritableException("Tipo não suportado em protobuf: " + body.getClass().getName() + " !");
+        }
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private static boolean isOfPersons(ResolvableType type, Class<?> container) {
+        ResolvableType containerType = type.as(container);
+        return containerType != ResolvableType.NONE && containerType.getGeneric(0).toClass() == PersonDTO.class;
+    }
+}
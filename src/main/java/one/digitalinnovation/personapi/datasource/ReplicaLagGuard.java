@@ -0,0 +1,63 @@
+package one.digitalinnovation.personapi.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+// The last commit time travels with the client (see ReplicaLagInterceptor), so a read that lands on another
+// worker thread or instance is still pinned to the primary until the replicas have caught up.
+public class ReplicaLagGuard {
+
+    public static final String LAST_WRITE_COOKIE = "personapi-last-write";
+
+    private final ThreadLocal<Session> session = new ThreadLocal<>();
+    private final Duration replicaLag;
+    private final Clock clock;
+
+    public ReplicaLagGuard(Duration replicaLag, Clock clock) {
+        this.replicaLag = replicaLag;
+        this.clock = clock;
+    }
+
+    public Duration getReplicaLag() {
+        return replicaLag;
+    }
+
+    public void begin(Instant lastWrite, Consumer<Instant> onWrite) {
+        session.set(new Session(lastWrite, onWrite));
+    }
+
+    public void end() {
+        session.remove();
+    }
+
+    public void markWrite() {
+        Session current = session.get();
+        if (current == null) {
+            return;
+        }
+        current.lastWrite = clock.instant();
+        current.onWrite.accept(current.lastWrite);
+    }
+
+    public boolean isPinnedToPrimary() {
+        Session current = session.get();
+        if (current == null || current.lastWrite == null) {
+            return false;
+        }
+        Instant now = clock.instant();
+        return now.isBefore(current.lastWrite.plus(replicaLag)) && !current.lastWrite.isAfter(now.plus(replicaLag));
+    }
+
+    private static class Session {
+
+        private Instant lastWrite;
+        private final Consumer<Instant> onWrite;
+
+        private Session(Instant lastWrite, Consumer<Instant> onWrite) {
+            this.lastWrite = lastWrite;
+            this.onWrite = onWrite;
+        }
+    }
+}
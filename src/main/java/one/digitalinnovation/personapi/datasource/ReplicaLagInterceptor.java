@@ -0,0 +1,55 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Instant;
+
+public class ReplicaLagInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReplicaLagGuard replicaLagGuard;
+
+    public ReplicaLagInterceptor(ReplicaLagGuard replicaLagGuard) {
+        this.replicaLagGuard = replicaLagGuard;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        replicaLagGuard.begin(lastWrite(request), written -> response.addCookie(cookie(written)));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        replicaLagGuard.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        replicaLagGuard.end();
+    }
+
+    private Instant lastWrite(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, ReplicaLagGuard.LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(cookie.getValue()));
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Cookie cookie(Instant written) {
+        Cookie cookie = new Cookie(ReplicaLagGuard.LAST_WRITE_COOKIE, String.valueOf(written.toEpochMilli()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (replicaLagGuard.getReplicaLag().toMillis() + 999) / 1000));
+        return cookie;
+    }
+}
@@ -0,0 +1,19 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+public class ShardAwareSequenceGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        Long local = (Long) super.generate(session, object);
+        String shard = session.getTenantIdentifier();
+        if (shard == null) {
+            return local;
+        }
+        return local * ShardRouter.MAX_SHARDS + Integer.parseInt(shard);
+    }
+}
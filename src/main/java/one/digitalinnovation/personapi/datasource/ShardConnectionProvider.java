@@ -0,0 +1,34 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+public class ShardConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardConnectionProvider(List<DataSource> shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return shards.get(ShardContext.current());
+    }
+
+    @Override
+    protected DataSource selectDataSource(String tenantIdentifier) {
+        return shards.get(Integer.parseInt(tenantIdentifier));
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable) {
+                ((AutoCloseable) shard).close();
+            }
+        }
+    }
+}
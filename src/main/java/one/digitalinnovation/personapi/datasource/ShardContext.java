@@ -0,0 +1,45 @@
+package one.digitalinnovation.personapi.datasource;
+
+import java.util.function.Supplier;
+
+public final class ShardContext {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+
+    public static boolean isBound() {
+        return CURRENT.get() != null;
+    }
+
+    public static <T> T call(int shard, Supplier<T> call) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return call.get();
+        }
+        finally {
+            if (previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(int shard, Runnable call) {
+        call(shard, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
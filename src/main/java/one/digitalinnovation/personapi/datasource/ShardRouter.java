@@ -0,0 +1,58 @@
+package one.digitalinnovation.personapi.datasource;
+
+import one.digitalinnovation.personapi.converter.CpfConverter;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ShardRouter {
+
+    public static final int MAX_SHARDS = 64;
+
+    private final CpfConverter cpfConverter = new CpfConverter();
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public List<Integer> shards() {
+        return IntStream.range(0, shardCount).boxed().collect(Collectors.toList());
+    }
+
+    public int shardOf(String cpf) {
+        Long normalized = cpfConverter.convertToDatabaseColumn(cpf);
+        if (normalized == null) {
+            throw new InvalidParameterException("CPF inválido !");
+        }
+        return Math.floorMod(mix(normalized), shardCount);
+    }
+
+    // Ids carry the shard that generated them in their low bits, see ShardAwareSequenceGenerator.
+    public int shardOf(Long id) {
+        return (int) Math.floorMod(id, (long) MAX_SHARDS);
+    }
+
+    public boolean isValidShard(int shard) {
+        return shard < shardCount;
+    }
+
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,40 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.Action;
+import org.hibernate.tool.schema.spi.DelayedDropRegistryNotAvailableImpl;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ShardSchemaIntegrator implements Integrator {
+
+    private final ShardRouter shardRouter;
+
+    public ShardSchemaIntegrator(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    // Hibernate only manages the schema of the shard returned as "any" connection, the default one.
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        Map<String, Object> settings = new HashMap<>(serviceRegistry.getService(ConfigurationService.class).getSettings());
+        if (Action.interpretHbm2ddlSetting(settings.get(AvailableSettings.HBM2DDL_AUTO)) == Action.CREATE_DROP) {
+            settings.put(AvailableSettings.HBM2DDL_AUTO, Action.CREATE);
+        }
+        shardRouter.shards().stream()
+                .filter(shard -> shard != ShardContext.DEFAULT_SHARD)
+                .forEach(shard -> ShardContext.run(shard, () -> SchemaManagementToolCoordinator.process(metadata, serviceRegistry,
+                        settings, DelayedDropRegistryNotAvailableImpl.INSTANCE)));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
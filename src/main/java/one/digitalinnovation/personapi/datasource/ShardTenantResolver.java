@@ -0,0 +1,16 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+public class ShardTenantResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return String.valueOf(ShardContext.current());
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
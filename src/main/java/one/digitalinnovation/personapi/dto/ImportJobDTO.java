@@ -0,0 +1,33 @@
+package one.digitalinnovation.personapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.ImportStatus;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobDTO {
+
+    private String id;
+
+    private ImportFormat format;
+
+    private ImportStatus status;
+
+    private long committedLines;
+
+    private long acceptedCount;
+
+    private long rejectedCount;
+
+    private String rejectsFile;
+
+    private Instant updatedAt;
+}
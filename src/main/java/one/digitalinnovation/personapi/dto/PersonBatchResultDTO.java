@@ -0,0 +1,22 @@
+package one.digitalinnovation.personapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersonBatchResultDTO {
+
+    private int index;
+
+    private Long id;
+
+    private BatchItemStatus status;
+
+    private String message;
+}
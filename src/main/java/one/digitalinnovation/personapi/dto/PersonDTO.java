@@ -1,9 +1,11 @@
 package one.digitalinnovation.personapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.validation.ValidCpf;
 import java.time.LocalDate;
 import java.util.Set;
 
@@ -19,11 +21,16 @@ public class PersonDTO {
 
     private String lastName;
 
+    @ValidCpf
     private String cpf;
 
     private LocalDate birthDate;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Set<AddressDTO> addresses;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Set<PhoneDTO> phones;
+
+    private Long version;
 }
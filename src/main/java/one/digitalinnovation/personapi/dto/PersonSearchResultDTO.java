@@ -0,0 +1,21 @@
+package one.digitalinnovation.personapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersonSearchResultDTO {
+
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private int score;
+}
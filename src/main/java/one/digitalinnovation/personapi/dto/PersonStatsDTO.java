@@ -0,0 +1,29 @@
+package one.digitalinnovation.personapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.enums.PhoneType;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PersonStatsDTO {
+
+    private long total;
+
+    private Map<String, Long> byState;
+
+    private Map<PhoneType, Long> byPhoneType;
+
+    private Map<String, Long> byBirthDecade;
+
+    private Instant reconciledAt;
+
+    private long drift;
+}
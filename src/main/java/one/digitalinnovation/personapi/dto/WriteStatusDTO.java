@@ -0,0 +1,22 @@
+package one.digitalinnovation.personapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.enums.WriteStatus;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WriteStatusDTO {
+
+    private String ticket;
+
+    private Long id;
+
+    private WriteStatus status;
+
+    private String message;
+}
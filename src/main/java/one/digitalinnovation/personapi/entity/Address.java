@@ -5,17 +5,35 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import javax.persistence.*;
+import java.util.Objects;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address")
+@Table(indexes = {
+        @Index(name = "idx_address_city", columnList = "city"),
+        @Index(name = "idx_address_state", columnList = "state"),
+        @Index(name = "idx_address_zip_code", columnList = "zipCode")
+})
 public class Address {
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_seq")
+    @GenericGenerator(name = "address_seq", strategy = "one.digitalinnovation.personapi.datasource.ShardAwareSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "address_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -32,4 +50,27 @@ public class Address {
 
     @Column(nullable = false)
     private String zipCode;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Address)) {
+            return false;
+        }
+        Address address = (Address) o;
+        return Objects.equals(id, address.id)
+                && Objects.equals(street, address.street)
+                && number == address.number
+                && Objects.equals(city, address.city)
+                && Objects.equals(state, address.state)
+                && Objects.equals(zipCode, address.zipCode);
+    }
+
+    // Constant so that collection snapshots stay valid while managed children are updated in place.
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
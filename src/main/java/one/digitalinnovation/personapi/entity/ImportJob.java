@@ -0,0 +1,43 @@
+package one.digitalinnovation.personapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.ImportStatus;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class ImportJob {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ImportFormat format;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ImportStatus status;
+
+    private long committedLines;
+
+    private long acceptedCount;
+
+    private long rejectedCount;
+
+    private String rejectsFile;
+
+    // Bytes of the rejects file covered by committedLines; anything past it is from an uncommitted chunk.
+    private long rejectsOffset;
+
+    private Instant updatedAt;
+}
@@ -4,7 +4,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.validator.constraints.br.CPF;
+import one.digitalinnovation.personapi.converter.CpfConverter;
+import one.digitalinnovation.personapi.validation.CpfValidator;
+import one.digitalinnovation.personapi.validation.ValidCpf;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.util.Set;
@@ -14,10 +22,20 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity(name = "person")
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_person_first_name_id", columnList = "firstName, id"),
+        @Index(name = "idx_person_last_name_id", columnList = "lastName, id"),
+        @Index(name = "idx_person_birth_date_id", columnList = "birthDate, id")
+})
 public class Person {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @GenericGenerator(name = "person_seq", strategy = "one.digitalinnovation.personapi.datasource.ShardAwareSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "person_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -27,16 +45,44 @@ public class Person {
     private String lastName;
 
     @Column(nullable = false, unique = true)
-    @CPF
+    @Convert(converter = CpfConverter.class)
+    @ValidCpf
     private String cpf;
 
     private LocalDate birthDate;
 
     @Column(nullable = false)
     @OneToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "person.addresses")
     private Set<Address> addresses;
 
     @Column(nullable = false)
     @OneToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "person.phones")
     private Set<Phone> phones;
+
+    @Version
+    private Long version;
+
+    public void setCpf(String cpf) {
+        this.cpf = CpfValidator.normalize(cpf);
+    }
+
+    public void clearIds() {
+        id = null;
+        if (addresses != null) {
+            addresses.forEach(address -> address.setId(null));
+        }
+        if (phones != null) {
+            phones.forEach(phone -> phone.setId(null));
+        }
+    }
+
+    public static class PersonBuilder {
+
+        public PersonBuilder cpf(String cpf) {
+            this.cpf = CpfValidator.normalize(cpf);
+            return this;
+        }
+    }
 }
@@ -5,7 +5,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.personapi.enums.PhoneType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import javax.persistence.*;
+import java.util.Objects;
 
 
 @Data
@@ -13,10 +20,17 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "phone")
+@Table(indexes = @Index(name = "idx_phone_type", columnList = "type"))
 public class Phone {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phone_seq")
+    @GenericGenerator(name = "phone_seq", strategy = "one.digitalinnovation.personapi.datasource.ShardAwareSequenceGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "phone_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -26,5 +40,23 @@ public class Phone {
     @Enumerated(EnumType.STRING)
     private PhoneType type;
 
-
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Phone)) {
+            return false;
+        }
+        Phone phone = (Phone) o;
+        return Objects.equals(id, phone.id)
+                && Objects.equals(number, phone.number)
+                && Objects.equals(type, phone.type);
+    }
+
+    // Constant so that collection snapshots stay valid while managed children are updated in place.
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
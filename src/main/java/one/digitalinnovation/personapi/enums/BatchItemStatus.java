@@ -0,0 +1,14 @@
+package one.digitalinnovation.personapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BatchItemStatus {
+
+    CREATED("Created"),
+    REJECTED("Rejected");
+
+    private String description;
+}
@@ -0,0 +1,24 @@
+package one.digitalinnovation.personapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public enum ImportFormat {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private String description;
+
+    public static Optional<ImportFormat> fromMediaType(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> MediaType.parseMediaType(format.description).isCompatibleWith(mediaType))
+                .findFirst();
+    }
+}
@@ -0,0 +1,26 @@
+package one.digitalinnovation.personapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public enum PersonExpansion {
+
+    ADDRESSES("addresses"),
+    PHONES("phones");
+
+    private String description;
+
+    public static Optional<PersonExpansion> fromDescription(String description) {
+        return Arrays.stream(values()).filter(expansion -> expansion.description.equals(description)).findFirst();
+    }
+
+    public static boolean isFull(Set<PersonExpansion> expand) {
+        return expand.size() == values().length;
+    }
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.personapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public enum PersonSortKey {
+
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    CPF("cpf");
+
+    private String description;
+
+    public static Optional<PersonSortKey> fromDescription(String description) {
+        return Arrays.stream(values()).filter(key -> key.description.equals(description)).findFirst();
+    }
+}
@@ -0,0 +1,15 @@
+package one.digitalinnovation.personapi.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum WriteStatus {
+
+    PENDING("Pending"),
+    COMPLETED("Completed"),
+    FAILED("Failed");
+
+    private String description;
+}
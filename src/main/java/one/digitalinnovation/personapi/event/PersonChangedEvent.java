@@ -0,0 +1,33 @@
+package one.digitalinnovation.personapi.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PersonChangedEvent {
+
+    private final List<PersonDTO> saved;
+
+    // Images of the updated or deleted persons as they were before this change.
+    private final List<PersonDTO> previous;
+
+    private final Collection<Long> deletedIds;
+
+    public static PersonChangedEvent saved(List<PersonDTO> persons) {
+        return new PersonChangedEvent(persons, List.of(), List.of());
+    }
+
+    public static PersonChangedEvent updated(PersonDTO previous, PersonDTO saved) {
+        return new PersonChangedEvent(List.of(saved), List.of(previous), List.of());
+    }
+
+    public static PersonChangedEvent deleted(Collection<Long> ids, List<PersonDTO> previous) {
+        return new PersonChangedEvent(List.of(), previous, ids);
+    }
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.personapi.exception;
+
+public class InvalidParameterException extends RuntimeException{
+
+    public InvalidParameterException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.personapi.exception;
+
+public class PreconditionFailedException extends RuntimeException{
+
+    public PreconditionFailedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.personapi.exception;
+
+public class ServiceUnavailableException extends RuntimeException{
+
+    public ServiceUnavailableException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,8 @@
+package one.digitalinnovation.personapi.exception;
+
+public class TooManyRequestsException extends RuntimeException{
+
+    public TooManyRequestsException(String msg) {
+        super(msg);
+    }
+}
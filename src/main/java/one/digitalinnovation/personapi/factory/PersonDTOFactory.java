@@ -24,7 +24,7 @@ public class PersonDTOFactory {
         addressSetDTO.add(addressDTO);
         phoneSetDTO.add(phoneDTO);
 
-        PersonDTO personDTO = new PersonDTO(null,"FirstName","lastName","44453213387",null,addressSetDTO, phoneSetDTO);
+        PersonDTO personDTO = new PersonDTO(null,"FirstName","lastName","44453213387",null,addressSetDTO, phoneSetDTO, null);
 
         return personDTO;
     }
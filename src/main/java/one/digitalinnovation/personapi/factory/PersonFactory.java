@@ -22,7 +22,7 @@ public class PersonFactory {
         addressSet.add(address);
         phoneSet.add(phone);
 
-        Person person = new Person(null,"FirstName","lastName","44453213387",null,addressSet,phoneSet);
+        Person person = new Person(null,"FirstName","lastName","44453213387",null,addressSet,phoneSet,null);
 
         return person;
     }
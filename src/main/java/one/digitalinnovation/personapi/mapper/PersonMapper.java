@@ -1,11 +1,20 @@
 package one.digitalinnovation.personapi.mapper;
 
+import one.digitalinnovation.personapi.dto.AddressDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PhoneDTO;
+import one.digitalinnovation.personapi.entity.Address;
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.entity.Phone;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.repository.PersonRepository;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
+import java.util.Set;
+
 @Mapper
 public interface PersonMapper {
 
@@ -13,5 +22,43 @@ public interface PersonMapper {
 
     @Mapping(source = "birthDate", target = "birthDate", dateFormat = "dd-MM-yyyy")
     PersonDTO toDto(Person person);
+
+    @Mapping(target = "addresses", ignore = true)
+    @Mapping(target = "phones", ignore = true)
+    PersonDTO toSummaryDto(Person person);
+
+    @Mapping(target = "addresses", ignore = true)
+    @Mapping(target = "phones", ignore = true)
+    PersonDTO toDto(PersonRepository.SummaryView summary);
+
+    Set<AddressDTO> toAddressDtos(Set<Address> addresses);
+    Set<PhoneDTO> toPhoneDtos(Set<Phone> phones);
+
+    // Collections outside the expansion stay null, so their lazy proxies are never initialized.
+    default PersonDTO toDto(Person person, Set<PersonExpansion> expand) {
+        PersonDTO personDTO = toSummaryDto(person);
+        if (expand.contains(PersonExpansion.ADDRESSES)) {
+            personDTO.setAddresses(toAddressDtos(person.getAddresses()));
+        }
+        if (expand.contains(PersonExpansion.PHONES)) {
+            personDTO.setPhones(toPhoneDtos(person.getPhones()));
+        }
+        return personDTO;
+    }
+
+    PersonDTO copy(PersonDTO personDTO);
+    AddressDTO copy(AddressDTO addressDTO);
+    PhoneDTO copy(PhoneDTO phoneDTO);
+
+    @Mapping(target = "version", ignore = true)
     Person toEntity(PersonDTO personDTO);
+
+    Address toEntity(AddressDTO addressDTO);
+    Phone toEntity(PhoneDTO phoneDTO);
+
+    @Mapping(target = "id", ignore = true)
+    void updateAddress(AddressDTO addressDTO, @MappingTarget Address address);
+
+    @Mapping(target = "id", ignore = true)
+    void updatePhone(PhoneDTO phoneDTO, @MappingTarget Phone phone);
 }
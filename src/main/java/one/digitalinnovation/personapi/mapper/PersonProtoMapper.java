@@ -0,0 +1,167 @@
+package one.digitalinnovation.personapi.mapper;
+
+import one.digitalinnovation.personapi.dto.AddressDTO;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PhoneDTO;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import one.digitalinnovation.personapi.exception.StandardError;
+import one.digitalinnovation.personapi.protobuf.PersonProtos;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class PersonProtoMapper {
+
+    private PersonProtoMapper() {
+    }
+
+    public static PersonProtos.Person toProto(PersonDTO personDTO) {
+        PersonProtos.Person.Builder builder = PersonProtos.Person.newBuilder()
+                .setFirstName(nullToEmpty(personDTO.getFirstName()))
+                .setLastName(nullToEmpty(personDTO.getLastName()))
+                .setCpf(nullToEmpty(personDTO.getCpf()));
+        if (personDTO.getId() != null) {
+            builder.setId(personDTO.getId());
+        }
+        if (personDTO.getBirthDate() != null) {
+            builder.setBirthDate(Math.toIntExact(personDTO.getBirthDate().toEpochDay()));
+        }
+        if (personDTO.getVersion() != null) {
+            builder.setVersion(personDTO.getVersion());
+        }
+        if (personDTO.getAddresses() != null) {
+            builder.setAddressesIncluded(true);
+            personDTO.getAddresses().forEach(address -> builder.addAddresses(toProto(address)));
+        }
+        if (personDTO.getPhones() != null) {
+            builder.setPhonesIncluded(true);
+            personDTO.getPhones().forEach(phone -> builder.addPhones(toProto(phone)));
+        }
+        return builder.build();
+    }
+
+    public static PersonDTO toDto(PersonProtos.Person person) {
+        return PersonDTO.builder()
+                .id(person.hasId() ? person.getId() : null)
+                .firstName(person.getFirstName())
+                .lastName(person.getLastName())
+                .cpf(person.getCpf())
+                .birthDate(person.hasBirthDate() ? LocalDate.ofEpochDay(person.getBirthDate()) : null)
+                .addresses(person.getAddressesIncluded() || person.getAddressesCount() > 0
+                        ? person.getAddressesList().stream().map(PersonProtoMapper::toDto).collect(Collectors.toCollection(LinkedHashSet::new)) : null)
+                .phones(person.getPhonesIncluded() || person.getPhonesCount() > 0
+                        ? person.getPhonesList().stream().map(PersonProtoMapper::toDto).collect(Collectors.toCollection(LinkedHashSet::new)) : null)
+                .version(person.hasVersion() ? person.getVersion() : null)
+                .build();
+    }
+
+    public static PersonProtos.PersonPage toProto(Page<PersonDTO> page) {
+        return PersonProtos.PersonPage.newBuilder()
+                .addAllContent(toProto(page.getContent()))
+                .setNumber(page.getNumber())
+                .setSize(page.getSize())
+                .setTotalElements(page.getTotalElements())
+                .setTotalPages(page.getTotalPages())
+                .build();
+    }
+
+    public static PersonProtos.PersonCursorPage toProto(CursorPageDTO<PersonDTO> page) {
+        PersonProtos.PersonCursorPage.Builder builder = PersonProtos.PersonCursorPage.newBuilder()
+                .addAllContent(toProto(page.getContent()))
+                .setSize(page.getSize());
+        if (page.getNextCursor() != null) {
+            builder.setNextCursor(page.getNextCursor());
+        }
+        if (page.getTotalElements() != null) {
+            builder.setTotalElements(page.getTotalElements());
+        }
+        return builder.build();
+    }
+
+    public static CursorPageDTO<PersonDTO> toDto(PersonProtos.PersonCursorPage page) {
+        return CursorPageDTO.<PersonDTO>builder()
+                .content(toDtos(page.getContentList()))
+                .size(page.getSize())
+                .nextCursor(page.hasNextCursor() ? page.getNextCursor() : null)
+                .totalElements(page.hasTotalElements() ? page.getTotalElements() : null)
+                .build();
+    }
+
+    public static List<PersonProtos.Person> toProto(List<PersonDTO> personDTOs) {
+        return personDTOs.stream().map(PersonProtoMapper::toProto).collect(Collectors.toList());
+    }
+
+    public static List<PersonDTO> toDtos(List<PersonProtos.Person> persons) {
+        return persons.stream().map(PersonProtoMapper::toDto).collect(Collectors.toList());
+    }
+
+    public static PersonProtos.Error toProto(StandardError error) {
+        return PersonProtos.Error.newBuilder()
+                .setTimestamp(error.getTimestamp() == null ? 0 : error.getTimestamp().toEpochMilli())
+                .setStatus(error.getStatus())
+                .setError(nullToEmpty(error.getError()))
+                .setMessage(nullToEmpty(error.getMessage()))
+                .setPath(nullToEmpty(error.getPath()))
+                .build();
+    }
+
+    private static PersonProtos.Address toProto(AddressDTO addressDTO) {
+        PersonProtos.Address.Builder builder = PersonProtos.Address.newBuilder()
+                .setStreet(nullToEmpty(addressDTO.getStreet()))
+                .setNumber(addressDTO.getNumber())
+                .setCity(nullToEmpty(addressDTO.getCity()))
+                .setState(nullToEmpty(addressDTO.getState()))
+                .setZipCode(nullToEmpty(addressDTO.getZipCode()));
+        if (addressDTO.getId() != null) {
+            builder.setId(addressDTO.getId());
+        }
+        return builder.build();
+    }
+
+    private static AddressDTO toDto(PersonProtos.Address address) {
+        return AddressDTO.builder()
+                .id(address.hasId() ? address.getId() : null)
+                .street(address.getStreet())
+                .number(address.getNumber())
+                .city(address.getCity())
+                .state(address.getState())
+                .zipCode(address.getZipCode())
+                .build();
+    }
+
+    private static PersonProtos.Phone toProto(PhoneDTO phoneDTO) {
+        PersonProtos.Phone.Builder builder = PersonProtos.Phone.newBuilder()
+                .setNumber(nullToEmpty(phoneDTO.getNumber()))
+                .setType(phoneDTO.getType() == null ? PersonProtos.PhoneType.PHONE_TYPE_UNSPECIFIED
+                        : PersonProtos.PhoneType.valueOf(phoneDTO.getType().name()));
+        if (phoneDTO.getId() != null) {
+            builder.setId(phoneDTO.getId());
+        }
+        return builder.build();
+    }
+
+    private static PhoneDTO toDto(PersonProtos.Phone phone) {
+        return PhoneDTO.builder()
+                .id(phone.hasId() ? phone.getId() : null)
+                .number(phone.getNumber())
+                .type(toPhoneType(phone.getType()))
+                .build();
+    }
+
+    private static PhoneType toPhoneType(PersonProtos.PhoneType type) {
+        switch (type) {
+            case HOME: return PhoneType.HOME;
+            case MOBILE: return PhoneType.MOBILE;
+            case COMMERCIAL: return PhoneType.COMMERCIAL;
+            default: return null;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
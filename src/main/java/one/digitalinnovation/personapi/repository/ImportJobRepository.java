@@ -0,0 +1,9 @@
+package one.digitalinnovation.personapi.repository;
+
+import one.digitalinnovation.personapi.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+}
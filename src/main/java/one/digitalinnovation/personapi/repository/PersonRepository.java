@@ -1,12 +1,101 @@
 package one.digitalinnovation.personapi.repository;
 
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person>, PersonRepositoryCustom {
     @Query(value = "SELECT max(p.id) FROM person p")
     Long findLastId();
+
+    @Query(value = "SELECT min(p.id) FROM person p")
+    Long findFirstId();
+
+    Optional<Person> findByCpf(String cpf);
+
+    @Query(value = "SELECT p.version FROM person p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(value = "SELECT p.id AS id, p.firstName AS firstName, p.lastName AS lastName, p.cpf AS cpf, p.birthDate AS birthDate, p.version AS version FROM person p WHERE p.id IN :ids")
+    List<SummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT p.id FROM person p", countQuery = "SELECT count(p) FROM person p")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query(value = "SELECT DISTINCT p FROM person p LEFT JOIN FETCH p.addresses WHERE p.id IN :ids")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Person> findWithAddressesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT DISTINCT p FROM person p LEFT JOIN FETCH p.phones WHERE p.id IN :ids")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Person> findWithPhonesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT p.id FROM person p ORDER BY p.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Long> streamAllIds();
+
+    @Query(value = "SELECT p.id AS id, p.firstName AS firstName, p.lastName AS lastName FROM person p ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<NameView> streamNames();
+
+    // One statement per range, so the versions it returns match the rows it counted.
+    @Query(value = "SELECT DISTINCT p.id AS id, p.version AS version, p.birthDate AS birthDate, a.state AS state, ph.type AS type"
+            + " FROM person p LEFT JOIN p.addresses a LEFT JOIN p.phones ph WHERE p.id BETWEEN :from AND :to")
+    List<StatsView> findStatsByIdBetween(@Param("from") Long from, @Param("to") Long to);
+
+    interface NameView {
+
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+    }
+
+    interface SummaryView {
+
+        Long getId();
+
+        String getFirstName();
+
+        String getLastName();
+
+        String getCpf();
+
+        LocalDate getBirthDate();
+
+        Long getVersion();
+    }
+
+    interface StatsView {
+
+        Long getId();
+
+        Long getVersion();
+
+        LocalDate getBirthDate();
+
+        String getState();
+
+        PhoneType getType();
+    }
 }
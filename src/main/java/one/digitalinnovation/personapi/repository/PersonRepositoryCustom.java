@@ -0,0 +1,23 @@
+package one.digitalinnovation.personapi.repository;
+
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PersonRepositoryCustom {
+
+    List<PersonSeekKey> findKeysAfter(Specification<Person> specification, PersonSortKey sortKey, Sort.Direction direction,
+                                      Object value, Long id, int limit);
+
+    Page<Long> findPageIds(Specification<Person> specification, Pageable pageable);
+
+    int deleteAllByIdInBulk(Collection<Long> ids);
+
+    int deleteAllByIdInBulk(Collection<Long> ids, Collection<Long> addressIds, Collection<Long> phoneIds);
+}
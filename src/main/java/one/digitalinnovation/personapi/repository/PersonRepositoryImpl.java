@@ -0,0 +1,144 @@
+package one.digitalinnovation.personapi.repository;
+
+import one.digitalinnovation.personapi.entity.Address;
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.entity.Phone;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public List<PersonSeekKey> findKeysAfter(Specification<Person> specification, PersonSortKey sortKey, Sort.Direction direction,
+                                             Object value, Long id, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
+        Root<Person> root = criteria.from(Person.class);
+        Path<Long> idPath = root.get("id");
+        boolean ascending = direction.isAscending();
+        boolean byId = sortKey == PersonSortKey.ID;
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            predicates.add(specification.toPredicate(root, criteria, builder));
+        }
+        if (id != null && byId) {
+            predicates.add(ascending ? builder.greaterThan(idPath, id) : builder.lessThan(idPath, id));
+        }
+        else if (id != null) {
+            Path<String> property = root.get(sortKey.getDescription());
+            String seek = (String) value;
+            predicates.add(ascending ? builder.greaterThanOrEqualTo(property, seek) : builder.lessThanOrEqualTo(property, seek));
+            predicates.add(builder.or(
+                    ascending ? builder.greaterThan(property, seek) : builder.lessThan(property, seek),
+                    builder.and(builder.equal(property, seek),
+                            ascending ? builder.greaterThan(idPath, id) : builder.lessThan(idPath, id))));
+        }
+
+        List<Order> orders = new ArrayList<>(2);
+        if (!byId) {
+            Path<String> property = root.get(sortKey.getDescription());
+            orders.add(ascending ? builder.asc(property) : builder.desc(property));
+        }
+        orders.add(ascending ? builder.asc(idPath) : builder.desc(idPath));
+
+        criteria.multiselect(idPath, byId ? idPath : root.get(sortKey.getDescription()))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(orders);
+        return entityManager.createQuery(criteria).setMaxResults(limit).getResultList().stream()
+                .map(row -> new PersonSeekKey(row.get(0, Long.class), row.get(1)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Long> findPageIds(Specification<Person> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<Person> root = criteria.from(Person.class);
+        criteria.select(root.get("id")).where(specification.toPredicate(root, criteria, builder));
+        if (pageable.getSort().isSorted()) {
+            criteria.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        TypedQuery<Long> query = entityManager.createQuery(criteria);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> countMatching(specification));
+    }
+
+    private long countMatching(Specification<Person> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<Person> root = criteria.from(Person.class);
+        criteria.select(builder.count(root)).where(specification.toPredicate(root, criteria, builder));
+        return entityManager.createQuery(criteria).getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllByIdInBulk(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return deleteAllByIdInBulk(ids,
+                selectIds("SELECT addresses_id FROM person_addresses WHERE person_id IN (:ids)", ids),
+                selectIds("SELECT phones_id FROM person_phones WHERE person_id IN (:ids)", ids));
+    }
+
+    @Override
+    @Transactional
+    public int deleteAllByIdInBulk(Collection<Long> ids, Collection<Long> addressIds, Collection<Long> phoneIds) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        execute("DELETE FROM person_addresses WHERE person_id IN (:ids)", ids, Person.class);
+        execute("DELETE FROM person_phones WHERE person_id IN (:ids)", ids, Person.class);
+        if (!addressIds.isEmpty()) {
+            execute("DELETE FROM address WHERE id IN (:ids)", addressIds, Address.class);
+        }
+        if (!phoneIds.isEmpty()) {
+            execute("DELETE FROM phone WHERE id IN (:ids)", phoneIds, Phone.class);
+        }
+        int deleted = execute("DELETE FROM person WHERE id IN (:ids)", ids, Person.class);
+        entityManager.clear();
+        return deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> selectIds(String sql, Collection<Long> ids) {
+        List<Number> result = entityManager.createNativeQuery(sql).setParameter("ids", ids).getResultList();
+        return result.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    private int execute(String sql, Collection<Long> ids, Class<?> entityClass) {
+        Query query = entityManager.createNativeQuery(sql).setParameter("ids", ids);
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(entityClass);
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,13 @@
+package one.digitalinnovation.personapi.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Id and sort value of a row, which is all a keyset cursor needs to resume after it.
+@Getter
+@AllArgsConstructor
+public class PersonSeekKey {
+
+    private final Long id;
+    private final Object value;
+}
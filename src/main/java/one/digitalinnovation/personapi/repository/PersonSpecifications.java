@@ -0,0 +1,79 @@
+package one.digitalinnovation.personapi.repository;
+
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.entity.Address;
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.entity.Phone;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PersonSpecifications {
+
+    private PersonSpecifications() {
+    }
+
+    public static Specification<Person> matching(PersonFilterDTO filter) {
+        List<Specification<Person>> specifications = new ArrayList<>();
+        if (filter.getCity() != null || filter.getState() != null || filter.getZipCode() != null) {
+            specifications.add(hasAddress(filter.getCity(), filter.getState(), filter.getZipCode()));
+        }
+        if (filter.getBirthDateFrom() != null || filter.getBirthDateTo() != null) {
+            specifications.add(bornBetween(filter.getBirthDateFrom(), filter.getBirthDateTo()));
+        }
+        if (filter.getPhoneType() != null) {
+            specifications.add(hasPhoneType(filter.getPhoneType()));
+        }
+        return specifications.stream().reduce(Specification::and).orElse(null);
+    }
+
+    // The criteria of a single filter apply to the same address, so city=X&state=Y matches X in state Y.
+    public static Specification<Person> hasAddress(String city, String state, String zipCode) {
+        return (root, query, builder) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Person> person = subquery.from(Person.class);
+            Join<Person, Address> address = person.join("addresses");
+            List<Predicate> predicates = new ArrayList<>();
+            if (city != null) {
+                predicates.add(builder.equal(address.get("city"), city));
+            }
+            if (state != null) {
+                predicates.add(builder.equal(address.get("state"), state));
+            }
+            if (zipCode != null) {
+                predicates.add(builder.equal(address.get("zipCode"), zipCode));
+            }
+            subquery.select(person.get("id")).where(predicates.toArray(new Predicate[0]));
+            return root.get("id").in(subquery);
+        };
+    }
+
+    public static Specification<Person> bornBetween(LocalDate from, LocalDate to) {
+        return (root, query, builder) -> {
+            if (from == null) {
+                return builder.lessThanOrEqualTo(root.get("birthDate"), to);
+            }
+            if (to == null) {
+                return builder.greaterThanOrEqualTo(root.get("birthDate"), from);
+            }
+            return builder.between(root.get("birthDate"), from, to);
+        };
+    }
+
+    public static Specification<Person> hasPhoneType(PhoneType type) {
+        return (root, query, builder) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Person> person = subquery.from(Person.class);
+            Join<Person, Phone> phone = person.join("phones");
+            subquery.select(person.get("id")).where(builder.equal(phone.get("type"), type));
+            return root.get("id").in(subquery);
+        };
+    }
+}
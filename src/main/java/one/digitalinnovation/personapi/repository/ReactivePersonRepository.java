@@ -0,0 +1,124 @@
+package one.digitalinnovation.personapi.repository;
+
+import io.r2dbc.spi.Row;
+import one.digitalinnovation.personapi.converter.CpfConverter;
+import one.digitalinnovation.personapi.dto.AddressDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PhoneDTO;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@ConditionalOnProperty(value = "personapi.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactivePersonRepository {
+
+    private static final String SELECT_PERSONS = "SELECT p.id, p.first_name, p.last_name, p.cpf, p.birth_date, p.version FROM person p";
+
+    private static final String SELECT_ADDRESSES = "SELECT pa.person_id, a.id, a.street, a.number, a.city, a.state, a.zip_code "
+            + "FROM person_addresses pa JOIN address a ON a.id = pa.addresses_id WHERE pa.person_id IN (:ids)";
+
+    private static final String SELECT_PHONES = "SELECT pp.person_id, f.id, f.number, f.type "
+            + "FROM person_phones pp JOIN phone f ON f.id = pp.phones_id WHERE pp.person_id IN (:ids)";
+
+    private final CpfConverter cpfConverter = new CpfConverter();
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    public Mono<PersonDTO> findById(Long id) {
+        return databaseClient.sql(SELECT_PERSONS + " WHERE p.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toPerson(row))
+                .one()
+                .flatMap(person -> withChildren(List.of(person)).next());
+    }
+
+    public Flux<PersonDTO> findPage(long offset, int limit) {
+        return databaseClient.sql(SELECT_PERSONS + " ORDER BY p.id LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toPerson(row))
+                .all()
+                .collectList()
+                .flatMapMany(this::withChildren);
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT count(*) FROM person")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<PersonDTO> streamAll(int chunkSize) {
+        return databaseClient.sql(SELECT_PERSONS + " ORDER BY p.id")
+                .map((row, metadata) -> toPerson(row))
+                .all()
+                .buffer(chunkSize)
+                .concatMap(this::withChildren, 1);
+    }
+
+    private Flux<PersonDTO> withChildren(List<PersonDTO> persons) {
+        if (persons.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Long> ids = persons.stream().map(PersonDTO::getId).collect(Collectors.toList());
+        Mono<Map<Long, Set<AddressDTO>>> addresses = databaseClient.sql(SELECT_ADDRESSES)
+                .bind("ids", ids)
+                .map((row, metadata) -> new AbstractMap.SimpleEntry<>(row.get("person_id", Long.class), toAddress(row)))
+                .all()
+                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())));
+        Mono<Map<Long, Set<PhoneDTO>>> phones = databaseClient.sql(SELECT_PHONES)
+                .bind("ids", ids)
+                .map((row, metadata) -> new AbstractMap.SimpleEntry<>(row.get("person_id", Long.class), toPhone(row)))
+                .all()
+                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())));
+        return Mono.zip(addresses, phones).flatMapMany(children -> Flux.fromIterable(persons).map(person -> {
+            person.setAddresses(children.getT1().getOrDefault(person.getId(), new HashSet<>()));
+            person.setPhones(children.getT2().getOrDefault(person.getId(), new HashSet<>()));
+            return person;
+        }));
+    }
+
+    private PersonDTO toPerson(Row row) {
+        return PersonDTO.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .cpf(cpfConverter.convertToEntityAttribute(row.get("cpf", Long.class)))
+                .birthDate(row.get("birth_date", LocalDate.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    private AddressDTO toAddress(Row row) {
+        return AddressDTO.builder()
+                .id(row.get("id", Long.class))
+                .street(row.get("street", String.class))
+                .number(row.get("number", Integer.class))
+                .city(row.get("city", String.class))
+                .state(row.get("state", String.class))
+                .zipCode(row.get("zip_code", String.class))
+                .build();
+    }
+
+    private PhoneDTO toPhone(Row row) {
+        return PhoneDTO.builder()
+                .id(row.get("id", Long.class))
+                .number(row.get("number", String.class))
+                .type(PhoneType.valueOf(row.get("type", String.class)))
+                .build();
+    }
+}
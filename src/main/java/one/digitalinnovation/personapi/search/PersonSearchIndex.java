@@ -0,0 +1,324 @@
+package one.digitalinnovation.personapi.search;
+
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class PersonSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int EXACT = 30;
+    private static final int PREFIX = 20;
+    private static final int FUZZY = 10;
+    private static final int MAX_POSITION_PENALTY = 4;
+
+    private static final Comparator<Candidate> RANKING = Comparator.comparingInt((Candidate candidate) -> candidate.score).reversed()
+            .thenComparingInt(candidate -> candidate.name.length())
+            .thenComparing(candidate -> candidate.name)
+            .thenComparing(candidate -> candidate.entry.id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    // Vocabulary by token length, so the typo fallback only compares tokens that can be within reach.
+    private final List<Set<String>> tokensByLength = new ArrayList<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public void put(Long id, String firstName, String lastName) {
+        String[] tokens = Stream.concat(tokenize(firstName).stream(), tokenize(lastName).stream()).toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+            for (int i = 0; i < tokens.length; i++) {
+                Posting posting = postings.get(tokens[i]);
+                if (posting == null) {
+                    posting = new Posting(tokens[i]);
+                    postings.put(tokens[i], posting);
+                    lengthBucket(tokens[i].length()).add(tokens[i]);
+                }
+                posting.add(id);
+                // Entries share the vocabulary's strings instead of holding their own copies.
+                tokens[i] = posting.token;
+            }
+            entries.put(id, new Entry(id, firstName, lastName, tokens));
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PersonSearchResultDTO> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String driver = terms.stream().max(Comparator.comparingInt(String::length)).get();
+        int maxEdits = maxEdits(driver);
+        List<String> vocabulary = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Candidate> ranked = rank(candidates(driver, List.of()), terms, limit, false);
+            // Typo tolerance only kicks in when exact and prefix matches cannot fill the page.
+            if (ranked.size() >= limit || maxEdits == 0) {
+                return toDtos(ranked);
+            }
+            for (int length = Math.max(1, driver.length() - maxEdits); length <= driver.length() + maxEdits && length < tokensByLength.size(); length++) {
+                vocabulary.addAll(tokensByLength.get(length));
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        // Edit distances are computed on the snapshot, without holding the lock.
+        List<String> similar = vocabulary.stream().filter(token -> withinEdits(driver, token, maxEdits)).collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return toDtos(rank(candidates(driver, similar), terms, limit, true));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(token -> !token.isEmpty()).collect(Collectors.toList());
+    }
+
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    private static int maxEdits(String term) {
+        return term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+    }
+
+    private static List<PersonSearchResultDTO> toDtos(List<Candidate> ranked) {
+        return ranked.stream().map(Candidate::toDto).collect(Collectors.toList());
+    }
+
+    private Set<String> lengthBucket(int length) {
+        while (tokensByLength.size() <= length) {
+            tokensByLength.add(new HashSet<>());
+        }
+        return tokensByLength.get(length);
+    }
+
+    // Union of the postings of every token starting with the driver and of the similar tokens, sorted and without repeats.
+    private long[] candidates(String driver, List<String> similar) {
+        List<Posting> matched = new ArrayList<>(postings.subMap(driver, true, driver + Character.MAX_VALUE, false).values());
+        for (String token : similar) {
+            Posting posting = postings.get(token);
+            if (posting != null) {
+                matched.add(posting);
+            }
+        }
+        long[] ids = new long[matched.stream().mapToInt(posting -> posting.size).sum()];
+        int size = 0;
+        for (Posting posting : matched) {
+            System.arraycopy(posting.ids, 0, ids, size, posting.size);
+            size += posting.size;
+        }
+        return matched.size() == 1 ? ids : LongStream.of(ids).sorted().distinct().toArray();
+    }
+
+    private List<Candidate> rank(long[] ids, List<String> terms, int limit, boolean fuzzy) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (long id : ids) {
+            Entry entry = entries.get(id);
+            int score = entry.score(terms, fuzzy);
+            if (score > 0) {
+                top.add(new Candidate(entry, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Candidate> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked;
+    }
+
+    private void removeEntry(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String token : entry.tokens) {
+            Posting posting = postings.get(token);
+            if (posting != null && posting.remove(id) && posting.size == 0) {
+                postings.remove(token);
+                tokensByLength.get(token.length()).remove(token);
+            }
+        }
+    }
+
+    // Ids are kept sorted in a growable long[]; indexes are normally loaded in id order, so adds mostly append.
+    private static class Posting {
+
+        private final String token;
+        private long[] ids = new long[1];
+        private int size;
+
+        private Posting(String token) {
+            this.token = token;
+        }
+
+        private void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size > 0 && size <= ids.length >> 2) {
+                ids = Arrays.copyOf(ids, size << 1);
+            }
+            return true;
+        }
+    }
+
+    private static class Entry {
+
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String[] tokens;
+
+        private Entry(Long id, String firstName, String lastName, String[] tokens) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.tokens = tokens;
+        }
+
+        private int score(List<String> terms, boolean fuzzy) {
+            int total = 0;
+            for (String term : terms) {
+                int best = 0;
+                for (int i = 0; i < tokens.length; i++) {
+                    int match = match(term, tokens[i], fuzzy);
+                    if (match > 0) {
+                        best = Math.max(best, match - Math.min(i, MAX_POSITION_PENALTY));
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private static int match(String term, String token, boolean fuzzy) {
+            if (token.equals(term)) {
+                return EXACT;
+            }
+            if (token.startsWith(term)) {
+                return PREFIX;
+            }
+            return fuzzy && withinEdits(term, token, maxEdits(term)) ? FUZZY : 0;
+        }
+    }
+
+    private static class Candidate {
+
+        private final Entry entry;
+        private final int score;
+        private final String name;
+
+        private Candidate(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+            this.name = String.join(" ", entry.tokens);
+        }
+
+        private PersonSearchResultDTO toDto() {
+            return PersonSearchResultDTO.builder()
+                    .id(entry.id)
+                    .firstName(entry.firstName)
+                    .lastName(entry.lastName)
+                    .score(score)
+                    .build();
+        }
+    }
+}
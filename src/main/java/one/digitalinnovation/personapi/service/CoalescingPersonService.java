@@ -0,0 +1,60 @@
+package one.digitalinnovation.personapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.mapper.PersonMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// Sits outside PersonService's transactions, so callers waiting on a shared load do not hold a connection.
+@Service
+public class CoalescingPersonService {
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${personapi.single-flight.enabled:true}")
+    boolean enabled;
+
+    @Value("${personapi.single-flight.timeout:5s}")
+    Duration timeout;
+
+    private SingleFlight<List<Object>, PersonDTO> findById;
+    private SingleFlight<List<Object>, Page<PersonDTO>> findAll;
+
+    @PostConstruct
+    void start() {
+        MeterRegistry meters = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        findById = new SingleFlight<>("findById", timeout, meters, PersonMapper.INSTANCE::copy);
+        findAll = new SingleFlight<>("findAll", timeout, meters, page -> page.map(PersonMapper.INSTANCE::copy));
+    }
+
+    public PersonDTO findById(Long id, Set<PersonExpansion> expand) {
+        if (!enabled) {
+            return personService.findById(id, expand);
+        }
+        return findById.execute(List.of(id, expand), () -> personService.findById(id, expand));
+    }
+
+    public Page<PersonDTO> findAll(PersonFilterDTO filter, Pageable pageable, Set<PersonExpansion> expand) {
+        if (!enabled) {
+            return personService.findAll(filter, pageable, expand);
+        }
+        return findAll.execute(List.of(filter, pageable, expand), () -> personService.findAll(filter, pageable, expand));
+    }
+}
@@ -0,0 +1,57 @@
+package one.digitalinnovation.personapi.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.repository.PersonSeekKey;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class PersonCursor {
+
+    private final PersonSortKey sortKey;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final String value;
+
+    public static PersonCursor of(String after, String sort) {
+        return after.isEmpty() ? first(sort) : decode(after);
+    }
+
+    public static PersonCursor first(String sort) {
+        String[] parts = sort.split(",");
+        PersonSortKey sortKey = PersonSortKey.fromDescription(parts[0].trim())
+                .orElseThrow(() -> new InvalidParameterException("Campo de ordenação não suportado: " + parts[0]));
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new InvalidParameterException("Direção de ordenação inválida: " + parts[1]))
+                : Sort.Direction.ASC;
+        return new PersonCursor(sortKey, direction, null, null);
+    }
+
+    public static PersonCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+            PersonSortKey sortKey = PersonSortKey.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            return new PersonCursor(sortKey, direction, Long.valueOf(parts[2]), parts[3]);
+        }
+        catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidParameterException("Cursor inválido !");
+        }
+    }
+
+    public PersonCursor next(PersonSeekKey last) {
+        return new PersonCursor(sortKey, direction, last.getId(), last.getValue() == null ? "" : last.getValue().toString());
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + direction.name() + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
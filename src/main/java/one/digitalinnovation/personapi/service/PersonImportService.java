@@ -0,0 +1,342 @@
+package one.digitalinnovation.personapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.ImportJobDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.entity.ImportJob;
+import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.ImportStatus;
+import one.digitalinnovation.personapi.event.PersonChangedEvent;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.mapper.PersonMapper;
+import one.digitalinnovation.personapi.repository.ImportJobRepository;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class PersonImportService {
+
+    private static final ObjectReader CSV_ROW = new CsvMapper().readerFor(String[].class);
+
+    private static final Comparator<Integer> DEFAULT_SHARD_LAST = Comparator
+            .comparing((Integer shard) -> shard == ShardContext.DEFAULT_SHARD)
+            .thenComparing(Comparator.naturalOrder());
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    ImportJobRepository importJobRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${personapi.import.chunk-size:1000}")
+    int chunkSize;
+
+    @Value("${personapi.import.rejects-dir:${java.io.tmpdir}}")
+    String rejectsDir;
+
+    public ImportJobDTO importPersons(String jobId, ImportFormat format, InputStream input) {
+        ImportJob job = importJobRepository.findById(jobId).orElseGet(() -> newJob(jobId, format));
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            return toDto(job);
+        }
+        job.setStatus(ImportStatus.RUNNING);
+        saveJob(job);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+             FileChannel rejects = FileChannel.open(Paths.get(job.getRejectsFile()), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            rejects.truncate(job.getRejectsOffset());
+            rejects.position(job.getRejectsOffset());
+            Function<String, PersonDTO> parser = format == ImportFormat.CSV ? csvParser(reader.readLine()) : this::parseNdjson;
+            List<ImportLine> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= job.getCommittedLines() || line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new ImportLine(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    commitChunk(job, chunk, parser, rejects);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                commitChunk(job, chunk, parser, rejects);
+            }
+            job.setStatus(ImportStatus.COMPLETED);
+        }
+        catch (IOException e) {
+            job.setStatus(ImportStatus.FAILED);
+            saveJob(job);
+            throw new UncheckedIOException(e);
+        }
+        catch (RuntimeException e) {
+            job.setStatus(ImportStatus.FAILED);
+            saveJob(job);
+            throw e;
+        }
+        return toDto(saveJob(job));
+    }
+
+    public ImportJobDTO findJob(String jobId) {
+        return toDto(importJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Importação não encontrada !")));
+    }
+
+    // Rejects are forced to disk before the transaction that records the chunk's progress and the new file offset,
+    // so a resume truncates the file back to the last committed chunk and replays it without losing or repeating rejects.
+    // With sharding every shard commits its rows on its own and the progress commits last, with the default shard's rows;
+    // a crash in between replays the chunk, and the rows other shards already committed come back as integrity rejects.
+    private void commitChunk(ImportJob job, List<ImportLine> chunk, Function<String, PersonDTO> parser, FileChannel rejects) throws IOException {
+        chunk.parallelStream().forEach(item -> prepare(item, parser));
+        List<Map.Entry<Integer, List<ImportLine>>> validByShard = new ArrayList<>(chunk.stream()
+                .filter(item -> item.rejection == null)
+                .collect(Collectors.groupingBy(item -> shardRouter.shardOf(item.person.getCpf()),
+                        () -> new TreeMap<>(DEFAULT_SHARD_LAST), Collectors.toList()))
+                .entrySet());
+        if (validByShard.isEmpty() || validByShard.get(validByShard.size() - 1).getKey() != ShardContext.DEFAULT_SHARD) {
+            validByShard.add(Map.entry(ShardContext.DEFAULT_SHARD, List.of()));
+        }
+        long lastLine = chunk.get(chunk.size() - 1).lineNumber;
+        long committedOffset = job.getRejectsOffset();
+        int committedShards = 0;
+        int accepted = 0;
+
+        try {
+            long rejectsOffset = writeRejects(chunk, rejects);
+            for (; committedShards < validByShard.size(); committedShards++) {
+                int shard = validByShard.get(committedShards).getKey();
+                List<ImportLine> valid = validByShard.get(committedShards).getValue();
+                int acceptedCount = accepted + valid.size();
+                ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                    List<Person> persons = personRepository.saveAllAndFlush(valid.stream().map(item -> item.person).collect(Collectors.toList()));
+                    publishSaved(persons);
+                    if (shard == ShardContext.DEFAULT_SHARD) {
+                        saveProgress(job, lastLine, acceptedCount, chunk.size() - acceptedCount, rejectsOffset);
+                    }
+                    entityManager.clear();
+                }));
+                accepted = acceptedCount;
+            }
+        }
+        catch (DataAccessException e) {
+            job.setRejectsOffset(committedOffset);
+            rejects.truncate(committedOffset);
+            List<ImportLine> pending = validByShard.subList(committedShards, validByShard.size()).stream()
+                    .flatMap(shard -> shard.getValue().stream())
+                    .collect(Collectors.toList());
+            for (ImportLine item : pending) {
+                item.person.clearIds();
+                try {
+                    ShardContext.run(shardRouter.shardOf(item.person.getCpf()), () -> transactionTemplate.executeWithoutResult(status -> {
+                        publishSaved(List.of(personRepository.saveAndFlush(item.person)));
+                        entityManager.clear();
+                    }));
+                    accepted++;
+                }
+                catch (DataAccessException ex) {
+                    item.rejection = "Violação de integridade !";
+                }
+            }
+            int acceptedCount = accepted;
+            long rejectsOffset = writeRejects(chunk, rejects);
+            transactionTemplate.executeWithoutResult(status -> saveProgress(job, lastLine, acceptedCount, chunk.size() - acceptedCount, rejectsOffset));
+        }
+    }
+
+    private long writeRejects(List<ImportLine> chunk, FileChannel rejects) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (ImportLine item : chunk) {
+            if (item.rejection != null) {
+                lines.append(objectMapper.createObjectNode()
+                        .put("line", item.lineNumber)
+                        .put("reason", item.rejection)
+                        .put("content", item.raw)
+                        .toString());
+                lines.append('\n');
+            }
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(lines));
+        while (buffer.hasRemaining()) {
+            rejects.write(buffer);
+        }
+        rejects.force(false);
+        return rejects.position();
+    }
+
+    private void publishSaved(List<Person> persons) {
+        eventPublisher.publishEvent(PersonChangedEvent.saved(persons.stream()
+                .map(PersonMapper.INSTANCE::toDto)
+                .collect(Collectors.toList())));
+    }
+
+    private void prepare(ImportLine item, Function<String, PersonDTO> parser) {
+        try {
+            item.person = PersonMapper.INSTANCE.toEntity(parser.apply(item.raw));
+        }
+        catch (RuntimeException e) {
+            item.rejection = "Linha inválida !";
+            return;
+        }
+        item.person.clearIds();
+        if (!validator.validate(item.person).isEmpty()) {
+            item.rejection = "CPF inválido !";
+        }
+    }
+
+    private void saveProgress(ImportJob job, long committedLines, long accepted, long rejected, long rejectsOffset) {
+        job.setCommittedLines(committedLines);
+        job.setRejectsOffset(rejectsOffset);
+        job.setAcceptedCount(job.getAcceptedCount() + accepted);
+        job.setRejectedCount(job.getRejectedCount() + rejected);
+        saveJob(job);
+    }
+
+    private ImportJob saveJob(ImportJob job) {
+        job.setUpdatedAt(Instant.now());
+        importJobRepository.save(job);
+        return job;
+    }
+
+    private ImportJob newJob(String jobId, ImportFormat format) {
+        return ImportJob.builder()
+                .id(jobId)
+                .format(format)
+                .status(ImportStatus.RUNNING)
+                .rejectsFile(rejectsFile(jobId).toString())
+                .build();
+    }
+
+    private Path rejectsFile(String jobId) {
+        Path dir = Paths.get(rejectsDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(jobId + "-rejects.ndjson").normalize();
+        if (!file.startsWith(dir) || !dir.equals(file.getParent())) {
+            throw new InvalidParameterException("jobId inválido !");
+        }
+        return file;
+    }
+
+    private static String[] csvValues(String line) {
+        try {
+            return CSV_ROW.readValue(line);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private PersonDTO parseNdjson(String line) {
+        try {
+            return objectMapper.readValue(line, PersonDTO.class);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private Function<String, PersonDTO> csvParser(String header) {
+        if (header == null) {
+            throw new InvalidParameterException("Arquivo CSV sem cabeçalho !");
+        }
+        List<String> columns = Arrays.stream(csvValues(header)).map(String::trim).collect(Collectors.toList());
+        int firstName = columns.indexOf("firstName");
+        int lastName = columns.indexOf("lastName");
+        int cpf = columns.indexOf("cpf");
+        int birthDate = columns.indexOf("birthDate");
+        if (firstName < 0 || lastName < 0 || cpf < 0) {
+            throw new InvalidParameterException("Cabeçalho CSV deve conter firstName, lastName e cpf !");
+        }
+        return line -> {
+            String[] values = csvValues(line);
+            return PersonDTO.builder()
+                    .firstName(values[firstName].trim())
+                    .lastName(values[lastName].trim())
+                    .cpf(values[cpf].trim())
+                    .birthDate(birthDate < 0 || values[birthDate].isBlank() ? null : LocalDate.parse(values[birthDate].trim()))
+                    .build();
+        };
+    }
+
+    private ImportJobDTO toDto(ImportJob job) {
+        return ImportJobDTO.builder()
+                .id(job.getId())
+                .format(job.getFormat())
+                .status(job.getStatus())
+                .committedLines(job.getCommittedLines())
+                .acceptedCount(job.getAcceptedCount())
+                .rejectedCount(job.getRejectedCount())
+                .rejectsFile(job.getRejectsFile())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    private static class ImportLine {
+
+        private final long lineNumber;
+        private final String raw;
+        private Person person;
+        private String rejection;
+
+        private ImportLine(long lineNumber, String raw) {
+            this.lineNumber = lineNumber;
+            this.raw = raw;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+import one.digitalinnovation.personapi.event.PersonChangedEvent;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.search.PersonSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class PersonSearchService {
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    private final Object journalLock = new Object();
+    private volatile PersonSearchIndex index = new PersonSearchIndex();
+    private List<PersonChangedEvent> journal;
+
+    public List<PersonSearchResultDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidParameterException("Consulta de busca vazia !");
+        }
+        return index.search(query, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        synchronized (journalLock) {
+            apply(index, event);
+            if (journal != null) {
+                journal.add(event);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        synchronized (journalLock) {
+            journal = new ArrayList<>();
+        }
+        PersonSearchIndex rebuilt = new PersonSearchIndex();
+        boolean scanned = false;
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            for (Integer shard : shardRouter.shards()) {
+                ShardContext.run(shard, () -> readOnly.executeWithoutResult(status -> {
+                    try (Stream<PersonRepository.NameView> names = personRepository.streamNames()) {
+                        names.forEach(name -> rebuilt.put(name.getId(), name.getFirstName(), name.getLastName()));
+                    }
+                }));
+            }
+            scanned = true;
+        }
+        finally {
+            synchronized (journalLock) {
+                // Changes committed while the scan was running are replayed so the new index does not miss them.
+                if (scanned) {
+                    journal.forEach(event -> apply(rebuilt, event));
+                    index = rebuilt;
+                }
+                journal = null;
+            }
+        }
+    }
+
+    private void apply(PersonSearchIndex target, PersonChangedEvent event) {
+        event.getSaved().forEach(person -> target.put(person.getId(), person.getFirstName(), person.getLastName()));
+        event.getDeletedIds().forEach(target::remove);
+    }
+}
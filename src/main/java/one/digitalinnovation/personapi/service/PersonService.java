@@ -1,21 +1,73 @@
 package one.digitalinnovation.personapi.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.personapi.config.CacheConfig;
+import one.digitalinnovation.personapi.dto.AddressDTO;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PhoneDTO;
+import one.digitalinnovation.personapi.entity.Address;
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.entity.Phone;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.event.PersonChangedEvent;
 import one.digitalinnovation.personapi.exception.ConstraintViolationException;
+import one.digitalinnovation.personapi.exception.DatabaseException;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.PreconditionFailedException;
 import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
 import one.digitalinnovation.personapi.mapper.PersonMapper;
 import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.repository.PersonSeekKey;
+import one.digitalinnovation.personapi.repository.PersonSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceContext;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PersonService {
@@ -23,50 +75,457 @@ public class PersonService {
     @Autowired
     PersonRepository personRepository;
 
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${personapi.batch.chunk-size:500}")
+    int batchChunkSize;
+
+    @Value("${personapi.export.chunk-size:500}")
+    int exportChunkSize;
+
     @Transactional
+    @CachePut(cacheNames = CacheConfig.PERSONS, key = "#result.id")
     public PersonDTO insert(PersonDTO personDTO){
         try {
-            Person personSaved = personRepository.save(PersonMapper.INSTANCE.toEntity(personDTO));
-            return PersonMapper.INSTANCE.toDto(personSaved);
+            Person personSaved = personRepository.saveAndFlush(PersonMapper.INSTANCE.toEntity(personDTO));
+            PersonDTO savedDTO = PersonMapper.INSTANCE.toDto(personSaved);
+            eventPublisher.publishEvent(PersonChangedEvent.saved(List.of(savedDTO)));
+            return savedDTO;
         }
         catch (javax.validation.ConstraintViolationException e){
             throw new ConstraintViolationException("CPF inválido !");
         }
     }
 
+    public List<PersonBatchResultDTO> insertAll(List<PersonDTO> personDTOs){
+        List<PersonBatchResultDTO> results = new ArrayList<>(personDTOs.size());
+        List<Person> chunk = new ArrayList<>(batchChunkSize);
+        List<PersonBatchResultDTO> chunkResults = new ArrayList<>(batchChunkSize);
+        for (int i = 0; i < personDTOs.size(); i++) {
+            Person person = PersonMapper.INSTANCE.toEntity(personDTOs.get(i));
+            person.clearIds();
+            PersonBatchResultDTO result = PersonBatchResultDTO.builder().index(i).build();
+            results.add(result);
+            if (!validator.validate(person).isEmpty()) {
+                reject(result, "CPF inválido !");
+                continue;
+            }
+            chunk.add(person);
+            chunkResults.add(result);
+            if (chunk.size() >= batchChunkSize) {
+                persistChunk(chunk, chunkResults);
+                chunk.clear();
+                chunkResults.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, chunkResults);
+        }
+        return results;
+    }
+
+    private void persistChunk(List<Person> chunk, List<PersonBatchResultDTO> chunkResults){
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveAndClear(chunk));
+            for (int i = 0; i < chunk.size(); i++) {
+                accept(chunkResults.get(i), chunk.get(i));
+            }
+        }
+        catch (DataAccessException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                Person person = chunk.get(i);
+                person.clearIds();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> saveAndClear(List.of(person)));
+                    accept(chunkResults.get(i), person);
+                }
+                catch (DataAccessException ex) {
+                    reject(chunkResults.get(i), "Violação de integridade !");
+                }
+            }
+        }
+    }
+
+    private void saveAndClear(List<Person> persons){
+        personRepository.saveAllAndFlush(persons);
+        eventPublisher.publishEvent(PersonChangedEvent.saved(persons.stream()
+                .map(x->PersonMapper.INSTANCE.toDto(x))
+                .collect(Collectors.toList())));
+        entityManager.clear();
+    }
+
+    private void accept(PersonBatchResultDTO result, Person person){
+        result.setId(person.getId());
+        result.setStatus(BatchItemStatus.CREATED);
+    }
+
+    private void reject(PersonBatchResultDTO result, String message){
+        result.setStatus(BatchItemStatus.REJECTED);
+        result.setMessage(message);
+    }
+
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PERSONS, key = "#id", sync = true)
     public PersonDTO findById(Long id) {
         Optional<Person> personOpt = personRepository.findById(id);
         return PersonMapper.INSTANCE.toDto(personOpt.orElseThrow(()-> new ResourceNotFoundException("ID não encontrado !")));
     }
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PERSONS, key = "#id", sync = true, condition = "T(one.digitalinnovation.personapi.enums.PersonExpansion).isFull(#expand)")
+    public PersonDTO findById(Long id, Set<PersonExpansion> expand) {
+        List<PersonDTO> found = findAllExpanded(List.of(id), expand);
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("ID não encontrado !");
+        }
+        return found.get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public PersonDTO findByCpf(String cpf) {
+        Optional<Person> personOpt = personRepository.findByCpf(cpf);
+        return PersonMapper.INSTANCE.toDto(personOpt.orElseThrow(()-> new ResourceNotFoundException("CPF não encontrado !")));
+    }
+
     @Transactional(readOnly = true)
     public Page<PersonDTO> findAll(Pageable pageable) {
-        return personRepository.findAll(pageable).map(x->PersonMapper.INSTANCE.toDto(x));
+        return findAll(new PersonFilterDTO(), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PersonDTO> findAll(PersonFilterDTO filter, Pageable pageable) {
+        return findAll(filter, pageable, EnumSet.allOf(PersonExpansion.class));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PersonDTO> findAll(PersonFilterDTO filter, Pageable pageable, Set<PersonExpansion> expand) {
+        Specification<Person> specification = matching(filter);
+        Page<Long> idPage = specification == null ? personRepository.findPageIds(pageable)
+                : personRepository.findPageIds(specification, pageable);
+        return new PageImpl<>(findAllExpanded(idPage.getContent(), expand), idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PersonDTO> findAllAfter(String after, String sort, int size, boolean count) {
+        return findAllAfter(new PersonFilterDTO(), after, sort, size, count);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PersonDTO> findAllAfter(PersonFilterDTO filter, String after, String sort, int size, boolean count) {
+        Specification<Person> specification = matching(filter);
+        PersonCursor cursor = PersonCursor.of(after, sort);
+        List<PersonSeekKey> keys = personRepository.findKeysAfter(specification, cursor.getSortKey(), cursor.getDirection(),
+                cursor.getValue(), cursor.getId(), size + 1);
+        boolean hasNext = keys.size() > size;
+        List<PersonSeekKey> page = hasNext ? keys.subList(0, size) : keys;
+        List<Person> persons = findAllWithChildren(page.stream().map(PersonSeekKey::getId).collect(Collectors.toList()));
+        // The cursor follows the scanned keys, so rows deleted before the re-fetch neither repeat nor end the walk.
+        return CursorPageDTO.<PersonDTO>builder()
+                .content(persons.stream().map(x->PersonMapper.INSTANCE.toDto(x)).collect(Collectors.toList()))
+                .size(size)
+                .nextCursor(hasNext ? cursor.next(page.get(page.size() - 1)).encode() : null)
+                .totalElements(count ? (specification == null ? personRepository.count() : personRepository.count(specification)) : null)
+                .build();
+    }
+
+    private Specification<Person> matching(PersonFilterDTO filter) {
+        if (filter.getBirthDateFrom() != null && filter.getBirthDateTo() != null
+                && filter.getBirthDateFrom().isAfter(filter.getBirthDateTo())) {
+            throw new InvalidParameterException("Data de nascimento inicial maior que a final !");
+        }
+        return PersonSpecifications.matching(filter);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<List<PersonDTO>> chunkConsumer) {
+        try (Stream<Long> personIds = personRepository.streamAllIds()) {
+            Iterator<Long> iterator = personIds.iterator();
+            List<Long> ids = new ArrayList<>(exportChunkSize);
+            while (iterator.hasNext()) {
+                ids.add(iterator.next());
+                if (ids.size() >= exportChunkSize || !iterator.hasNext()) {
+                    chunkConsumer.accept(findAllWithChildren(ids).stream()
+                            .map(x->PersonMapper.INSTANCE.toDto(x))
+                            .collect(Collectors.toList()));
+                    entityManager.clear();
+                    ids.clear();
+                }
+            }
+        }
+    }
+
+    List<Person> findAllWithChildren(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Person> personsById = personRepository.findWithAddressesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+        personRepository.findWithPhonesByIdIn(ids);
+        return ids.stream().map(personsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<PersonDTO> findAllExpanded(List<Long> ids, Set<PersonExpansion> expand) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PersonDTO> personsById = new HashMap<>();
+        if (expand.isEmpty()) {
+            personRepository.findSummariesByIdIn(ids)
+                    .forEach(summary -> personsById.put(summary.getId(), PersonMapper.INSTANCE.toDto(summary)));
+        }
+        else {
+            Map<Long, Person> loaded = new HashMap<>();
+            if (expand.contains(PersonExpansion.ADDRESSES)) {
+                personRepository.findWithAddressesByIdIn(ids).forEach(person -> loaded.put(person.getId(), person));
+            }
+            if (expand.contains(PersonExpansion.PHONES)) {
+                personRepository.findWithPhonesByIdIn(ids).forEach(person -> loaded.put(person.getId(), person));
+            }
+            loaded.forEach((id, person) -> personsById.put(id, PersonMapper.INSTANCE.toDto(person, expand)));
+        }
+        return ids.stream().map(personsById::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#id")
     public PersonDTO delete(Long id){
-        try{
-            Optional<Person> personOpt = personRepository.findById(id);
-            personRepository.deleteById(id);
-            return PersonMapper.INSTANCE.toDto(personOpt.get());
-        }
-        catch(EmptyResultDataAccessException e) {
+        Optional<Person> personOpt = personRepository.findById(id);
+        PersonDTO personDTO = PersonMapper.INSTANCE.toDto(personOpt.orElseThrow(()-> new ResourceNotFoundException("ID não encontrado !")));
+        deleteInBulk(List.of(id), List.of(personDTO));
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(List.of(id), List.of(personDTO)));
+        return personDTO;
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PERSONS, key = "#id")
+    public void deleteById(Long id){
+        List<PersonDTO> previous = findPrevious(List.of(id));
+        if (previous.isEmpty()) {
             throw new ResourceNotFoundException("ID não encontrado !");
         }
+        deleteInBulk(List.of(id), previous);
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(List.of(id), previous));
     }
 
     @Transactional
+    public int deleteAllById(List<Long> ids){
+        List<PersonDTO> previous = findPrevious(ids);
+        int deleted = deleteInBulk(ids, previous);
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(ids, previous));
+        evictAfterCommit(ids);
+        return deleted;
+    }
+
+    // The images already loaded for the event carry the child ids, so the bulk delete does not select them again.
+    private int deleteInBulk(List<Long> ids, List<PersonDTO> previous) {
+        return personRepository.deleteAllByIdInBulk(ids,
+                previous.stream().flatMap(person -> person.getAddresses().stream()).map(AddressDTO::getId).collect(Collectors.toList()),
+                previous.stream().flatMap(person -> person.getPhones().stream()).map(PhoneDTO::getId).collect(Collectors.toList()));
+    }
+
+    private List<PersonDTO> findPrevious(List<Long> ids) {
+        return findAllWithChildren(ids).stream()
+                .map(x->PersonMapper.INSTANCE.toDto(x))
+                .collect(Collectors.toList());
+    }
+
+    // Evicting before commit would let a concurrent read cache the rows again while they are still visible.
+    void evictAfterCommit(Collection<Long> ids) {
+        afterCommit(cache -> ids.forEach(cache::evict));
+    }
+
+    void putAfterCommit(Collection<PersonDTO> personDTOs) {
+        afterCommit(cache -> personDTOs.forEach(personDTO -> cache.put(personDTO.getId(), personDTO)));
+    }
+
+    private void afterCommit(Consumer<Cache> action) {
+        Cache cache = cacheManager.getCache(CacheConfig.PERSONS);
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(cache);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.accept(cache);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Long findVersion(Long id) {
+        return personRepository.findVersionById(id).orElseThrow(()-> new ResourceNotFoundException("ID não encontrado !"));
+    }
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.PERSONS, key = "#id")
     public PersonDTO update(PersonDTO personDTO, Long id) {
+        return applyUpdate(personDTO, id);
+    }
+
+    // Runs in the caller's transaction without touching the cache; the caller caches the result once it commits.
+    PersonDTO applyUpdate(PersonDTO personDTO, Long id) {
+        Person person = personRepository.findById(id).orElseThrow(()-> new ResourceNotFoundException("ID não encontrado !"));
+        if (personDTO.getVersion() != null && !personDTO.getVersion().equals(person.getVersion())) {
+            throw new PreconditionFailedException("Versão desatualizada !");
+        }
+        PersonDTO previous = PersonMapper.INSTANCE.toDto(person);
+        person.setFirstName(personDTO.getFirstName());
+        person.setLastName(personDTO.getLastName());
+        person.setCpf(personDTO.getCpf());
+        person.setBirthDate(personDTO.getBirthDate());
+        // A missing collection, as in a summary read back from GET, leaves the children as they are.
+        boolean addressesUpdated = personDTO.getAddresses() != null && mergeAddresses(person, personDTO.getAddresses());
+        boolean phonesUpdated = personDTO.getPhones() != null && mergePhones(person, personDTO.getPhones());
+        return publishUpdated(previous, PersonMapper.INSTANCE.toDto(flush(person, addressesUpdated || phonesUpdated)));
+    }
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.PERSONS, key = "#id")
+    public PersonDTO patch(Long id, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidParameterException("Merge patch deve ser um objeto JSON !");
+        }
+        Person person = personRepository.findById(id).orElseThrow(()-> new ResourceNotFoundException("ID não encontrado !"));
+        PersonDTO previous = PersonMapper.INSTANCE.toDto(person);
+        boolean childrenUpdated = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            childrenUpdated |= applyPatchField(person, field.getKey(), field.getValue());
+        }
+        return publishUpdated(previous, PersonMapper.INSTANCE.toDto(flush(person, childrenUpdated)));
+    }
+
+    private PersonDTO publishUpdated(PersonDTO previous, PersonDTO personDTO) {
+        eventPublisher.publishEvent(PersonChangedEvent.updated(previous, personDTO));
+        return personDTO;
+    }
+
+    private Person flush(Person person, boolean childrenUpdated) {
+        Long version = person.getVersion();
         try {
-            personDTO.setId(id);
-            Person personSaved = personRepository.save(PersonMapper.INSTANCE.toEntity(personDTO));
-            return PersonMapper.INSTANCE.toDto(personSaved);
+            personRepository.flush();
+            if (childrenUpdated && Objects.equals(version, person.getVersion())) {
+                entityManager.lock(person, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            }
         }
-        catch(DataIntegrityViolationException e) {
-            throw new ResourceNotFoundException("ID não encontrado !");
+        catch (javax.validation.ConstraintViolationException e){
+            throw new ConstraintViolationException("CPF inválido !");
+        }
+        catch (DataIntegrityViolationException e) {
+            throw new DatabaseException("Violação de integridade !");
+        }
+        catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            throw new PreconditionFailedException("Versão desatualizada !");
+        }
+        return person;
+    }
+
+    private boolean applyPatchField(Person person, String field, JsonNode value) {
+        switch (field) {
+            case "id":
+            case "version":
+                return false;
+            case "firstName":
+                person.setFirstName(requiredText(field, value));
+                return false;
+            case "lastName":
+                person.setLastName(requiredText(field, value));
+                return false;
+            case "cpf":
+                person.setCpf(requiredText(field, value));
+                return false;
+            case "birthDate":
+                person.setBirthDate(patchValue(field, value, new TypeReference<LocalDate>() {}));
+                return false;
+            case "addresses":
+                return mergeAddresses(person, patchValue(field, value, new TypeReference<List<AddressDTO>>() {}));
+            case "phones":
+                return mergePhones(person, patchValue(field, value, new TypeReference<List<PhoneDTO>>() {}));
+            default:
+                throw new InvalidParameterException("Campo desconhecido: " + field + " !");
+        }
+    }
+
+    private boolean mergeAddresses(Person person, Collection<AddressDTO> addresses) {
+        return mergeChildren(person.getAddresses(), addresses, Address::getId, AddressDTO::getId,
+                PersonMapper.INSTANCE::updateAddress, PersonMapper.INSTANCE::toEntity);
+    }
+
+    private boolean mergePhones(Person person, Collection<PhoneDTO> phones) {
+        return mergeChildren(person.getPhones(), phones, Phone::getId, PhoneDTO::getId,
+                PersonMapper.INSTANCE::updatePhone, PersonMapper.INSTANCE::toEntity);
+    }
+
+    private String requiredText(String field, JsonNode value) {
+        if (!value.isTextual()) {
+            throw new InvalidParameterException("Campo inválido: " + field + " !");
+        }
+        return value.textValue();
+    }
+
+    private <T> T patchValue(String field, JsonNode value, TypeReference<T> type) {
+        if (value.isNull()) {
+            return null;
+        }
+        try {
+            return objectMapper.convertValue(value, type);
+        }
+        catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Campo inválido: " + field + " !");
+        }
+    }
+
+    private <E, D> boolean mergeChildren(Set<E> current, Collection<D> patched, Function<E, Long> entityId, Function<D, Long> dtoId,
+                                         BiConsumer<D, E> updater, Function<D, E> factory) {
+        Map<Long, E> remaining = new HashMap<>();
+        current.forEach(entity -> remaining.put(entityId.apply(entity), entity));
+        Collection<D> items = patched == null ? List.of() : patched;
+        for (D item : items) {
+            Long id = dtoId.apply(item);
+            if (id != null && !remaining.containsKey(id)) {
+                throw new InvalidParameterException("Item " + id + " não pertence à pessoa !");
+            }
+        }
+        Map<Long, D> kept = items.stream().filter(item -> dtoId.apply(item) != null)
+                .collect(Collectors.toMap(dtoId, Function.identity(), (first, second) -> second));
+        remaining.forEach((id, entity) -> {
+            if (!kept.containsKey(id)) {
+                current.remove(entity);
+                entityManager.remove(entity);
+            }
+        });
+        boolean updated = false;
+        for (Map.Entry<Long, D> item : kept.entrySet()) {
+            E entity = remaining.get(item.getKey());
+            if (!entity.equals(factory.apply(item.getValue()))) {
+                updater.accept(item.getValue(), entity);
+                updated = true;
+            }
         }
+        items.stream().filter(item -> dtoId.apply(item) == null)
+                .forEach(item -> current.add(factory.apply(item)));
+        return updated;
     }
 
 }
@@ -0,0 +1,317 @@
+package one.digitalinnovation.personapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.support.MutableSortDefinition;
+import org.springframework.beans.support.PropertyComparator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Routes every PersonService call to the shard that owns its rows, or scatters it across all shards.
+// It runs inside the cache advice but outside the transaction, so each session is opened on the selected shard;
+// calls that already carry a shard, like the ones made while scattering, go straight through.
+@Aspect
+@Component
+@Profile("sharded")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class PersonShardingAspect {
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newFixedThreadPool(shardRouter.getShardCount());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.insert(..)) && args(personDTO)")
+    public Object insert(ProceedingJoinPoint call, PersonDTO personDTO) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        return ShardContext.call(shardRouter.shardOf(personDTO.getCpf()), () -> proceed(call));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.findByCpf(..)) && args(cpf)")
+    public Object findByCpf(ProceedingJoinPoint call, String cpf) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        return ShardContext.call(shardRouter.shardOf(cpf), () -> proceed(call));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.*(Long, ..)) && args(id, ..)"
+            + " && !execution(* one.digitalinnovation.personapi.service.PersonService.patch(..))")
+    public Object byId(ProceedingJoinPoint call, Long id) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        return ShardContext.call(shardOf(id), () -> proceed(call));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.update(..)) && args(personDTO, id)")
+    public Object update(ProceedingJoinPoint call, PersonDTO personDTO, Long id) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        int shard = shardOf(id);
+        if (shardRouter.shardOf(personDTO.getCpf()) != shard) {
+            throw new InvalidParameterException("CPF não pode ser movido para outro shard !");
+        }
+        return ShardContext.call(shard, () -> proceed(call));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.patch(..)) && args(id, patch)")
+    public Object patch(ProceedingJoinPoint call, Long id, JsonNode patch) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        int shard = shardOf(id);
+        JsonNode cpf = patch == null ? null : patch.get("cpf");
+        if (cpf != null && cpf.isTextual() && shardRouter.shardOf(cpf.asText()) != shard) {
+            throw new InvalidParameterException("CPF não pode ser movido para outro shard !");
+        }
+        return ShardContext.call(shard, () -> proceed(call));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.insertAll(..)) && args(personDTOs)")
+    public Object insertAll(ProceedingJoinPoint call, List<PersonDTO> personDTOs) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < personDTOs.size(); i++) {
+            indexesByShard.computeIfAbsent(shardOfOrDefault(personDTOs.get(i)), shard -> new ArrayList<>()).add(i);
+        }
+        PersonBatchResultDTO[] results = new PersonBatchResultDTO[personDTOs.size()];
+        indexesByShard.forEach((shard, indexes) -> {
+            List<PersonDTO> shardPersons = indexes.stream().map(personDTOs::get).collect(Collectors.toList());
+            @SuppressWarnings("unchecked")
+            List<PersonBatchResultDTO> shardResults = ShardContext.call(shard,
+                    () -> (List<PersonBatchResultDTO>) proceed(call, new Object[]{shardPersons}));
+            for (int i = 0; i < indexes.size(); i++) {
+                PersonBatchResultDTO result = shardResults.get(i);
+                result.setIndex(indexes.get(i));
+                results[indexes.get(i)] = result;
+            }
+        });
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.deleteAllById(..)) && args(ids)")
+    public Object deleteAllById(ProceedingJoinPoint call, List<Long> ids) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        Map<Integer, List<Long>> idsByShard = ids.stream()
+                .filter(id -> shardRouter.isValidShard(shardRouter.shardOf(id)))
+                .collect(Collectors.groupingBy(shardRouter::shardOf, TreeMap::new, Collectors.toList()));
+        int deleted = 0;
+        for (Map.Entry<Integer, List<Long>> shardIds : idsByShard.entrySet()) {
+            deleted += (Integer) ShardContext.call(shardIds.getKey(), () -> proceed(call, new Object[]{shardIds.getValue()}));
+        }
+        return deleted;
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.exportAll(..))")
+    public Object exportAll(ProceedingJoinPoint call) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        for (Integer shard : shardRouter.shards()) {
+            ShardContext.call(shard, () -> proceed(call));
+        }
+        return null;
+    }
+
+    // Every shard returns its first offset + size rows, so deep offsets cost a fetch per shard; cursor pages do not.
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.findAll(..))")
+    public Object findAll(ProceedingJoinPoint call) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        Object[] shardArgs = call.getArgs().clone();
+        int pageableIndex = 0;
+        while (!(shardArgs[pageableIndex] instanceof Pageable)) {
+            pageableIndex++;
+        }
+        Pageable pageable = (Pageable) shardArgs[pageableIndex];
+        Sort sort = pageable.getSort().and(Sort.by(PersonSortKey.ID.getDescription()));
+        shardArgs[pageableIndex] = pageable.isPaged()
+                ? PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort) : Pageable.unpaged();
+
+        @SuppressWarnings("unchecked")
+        List<Page<PersonDTO>> pages = scatter(() -> (Page<PersonDTO>) proceed(call, shardArgs));
+        List<PersonDTO> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(comparator(sort))
+                .collect(Collectors.toList());
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(merged, pageable, total);
+        }
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    @Around("execution(public * one.digitalinnovation.personapi.service.PersonService.findAllAfter(..)) && args(.., after, sort, size, count)")
+    public Object findAllAfter(ProceedingJoinPoint call, String after, String sort, int size, boolean count) throws Throwable {
+        if (ShardContext.isBound()) {
+            return call.proceed();
+        }
+        PersonCursor cursor = PersonCursor.of(after, sort);
+        @SuppressWarnings("unchecked")
+        List<CursorPageDTO<PersonDTO>> pages = scatter(() -> (CursorPageDTO<PersonDTO>) proceed(call));
+
+        Comparator<PersonDTO> order = comparator(cursor.getSortKey());
+        List<PersonDTO> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(cursor.getDirection().isAscending() ? order : order.reversed())
+                .collect(Collectors.toList());
+        boolean hasNext = merged.size() > size || pages.stream().anyMatch(page -> page.getNextCursor() != null);
+        List<PersonDTO> content = merged.size() > size ? merged.subList(0, size) : merged;
+
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            PersonDTO last = content.get(content.size() - 1);
+            nextCursor = new PersonCursor(cursor.getSortKey(), cursor.getDirection(), last.getId(),
+                    Objects.toString(sortValue(cursor.getSortKey(), last), "")).encode();
+        }
+        else if (hasNext) {
+            // Shards only scanned rows deleted before the re-fetch; resume from the one furthest behind so none is skipped.
+            Comparator<PersonCursor> position = Comparator.comparing(
+                    (PersonCursor next) -> next.getSortKey() == PersonSortKey.ID ? "" : next.getValue()).thenComparing(PersonCursor::getId);
+            nextCursor = pages.stream()
+                    .map(CursorPageDTO::getNextCursor)
+                    .filter(Objects::nonNull)
+                    .map(PersonCursor::decode)
+                    .min(cursor.getDirection().isAscending() ? position : position.reversed())
+                    .map(PersonCursor::encode)
+                    .orElse(null);
+        }
+        return CursorPageDTO.<PersonDTO>builder()
+                .content(new ArrayList<>(content))
+                .size(size)
+                .nextCursor(nextCursor)
+                .totalElements(count ? pages.stream().mapToLong(CursorPageDTO::getTotalElements).sum() : null)
+                .build();
+    }
+
+    private <T> List<T> scatter(Supplier<T> call) {
+        List<CompletableFuture<T>> futures = shardRouter.shards().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> ShardContext.call(shard, call), executor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Object proceed(ProceedingJoinPoint call) {
+        return proceed(call, call.getArgs());
+    }
+
+    private static Object proceed(ProceedingJoinPoint call, Object[] args) {
+        try {
+            return call.proceed(args);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private int shardOf(Long id) {
+        int shard = shardRouter.shardOf(id);
+        if (!shardRouter.isValidShard(shard)) {
+            throw new ResourceNotFoundException("ID não encontrado !");
+        }
+        return shard;
+    }
+
+    // Invalid CPFs are rejected by the batch itself, on whichever shard it runs.
+    private int shardOfOrDefault(PersonDTO personDTO) {
+        try {
+            return shardRouter.shardOf(personDTO.getCpf());
+        }
+        catch (InvalidParameterException e) {
+            return ShardContext.DEFAULT_SHARD;
+        }
+    }
+
+    private static Comparator<PersonDTO> comparator(Sort sort) {
+        Comparator<PersonDTO> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            comparator = comparator.thenComparing(new PropertyComparator<>(
+                    new MutableSortDefinition(order.getProperty(), order.isIgnoreCase(), order.isAscending())));
+        }
+        return comparator;
+    }
+
+    private static Comparator<PersonDTO> comparator(PersonSortKey sortKey) {
+        Comparator<PersonDTO> byId = Comparator.comparing(PersonDTO::getId);
+        if (sortKey == PersonSortKey.ID) {
+            return byId;
+        }
+        return Comparator.comparing((PersonDTO person) -> (String) sortValue(sortKey, person)).thenComparing(byId);
+    }
+
+    private static Object sortValue(PersonSortKey sortKey, PersonDTO person) {
+        switch (sortKey) {
+            case FIRST_NAME: return person.getFirstName();
+            case LAST_NAME: return person.getLastName();
+            case CPF: return person.getCpf();
+            default: return person.getId();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.AddressDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.dto.PhoneDTO;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import one.digitalinnovation.personapi.event.PersonChangedEvent;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.statistics.PersonCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+public class PersonStatsService {
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    @Value("${personapi.stats.scan-parallelism:4}")
+    int scanParallelism;
+
+    @Value("${personapi.stats.scan-chunk-size:10000}")
+    int scanChunkSize;
+
+    @Value("${personapi.stats.drain-timeout:10s}")
+    Duration drainTimeout;
+
+    private final Object journalLock = new Object();
+    private final Set<List<Change>> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile PersonCounters counters = new PersonCounters();
+    private volatile Instant reconciledAt;
+    private volatile long drift;
+    private Set<Long> watched;
+    private List<Change> journal;
+
+    public PersonStatsDTO stats() {
+        PersonStatsDTO stats = counters.snapshot();
+        stats.setReconciledAt(reconciledAt);
+        stats.setDrift(drift);
+        return stats;
+    }
+
+    // Registered just before commit, so the changes are journaled as in flight until their transaction completes.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        List<Change> changes = changes(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (journalLock) {
+                committed(changes);
+            }
+            return;
+        }
+        synchronized (journalLock) {
+            inFlight.add(changes);
+            if (watched != null) {
+                changes.forEach(change -> watched.add(change.id));
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (journalLock) {
+                    if (status == STATUS_COMMITTED) {
+                        committed(changes);
+                    }
+                    inFlight.remove(changes);
+                    journalLock.notifyAll();
+                }
+            }
+        });
+    }
+
+    private void committed(List<Change> changes) {
+        changes.forEach(change -> change.applyTo(counters));
+        if (journal != null) {
+            journal.addAll(changes);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${personapi.stats.reconcile-interval:PT10M}",
+            initialDelayString = "${personapi.stats.reconcile-interval:PT10M}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    // The scan only keeps aggregate cells plus the versions it saw for persons changed while it ran. Once every
+    // transaction that was committing during the scan has finished, each journaled change is replayed unless the
+    // version the scan saw shows it was already counted.
+    public synchronized void rebuild() {
+        synchronized (journalLock) {
+            watched = new HashSet<>();
+            inFlight.forEach(changes -> changes.forEach(change -> watched.add(change.id)));
+            journal = new ArrayList<>();
+        }
+        try {
+            Scan scan = scan();
+            synchronized (journalLock) {
+                if (awaitCommitting()) {
+                    scan.replay(journal);
+                    drift = reconciledAt == null ? 0 : PersonCounters.distance(counters.snapshot(), scan.counters.snapshot());
+                    counters = scan.counters;
+                    reconciledAt = Instant.now();
+                }
+            }
+        }
+        finally {
+            synchronized (journalLock) {
+                watched = null;
+                journal = null;
+            }
+        }
+    }
+
+    private boolean awaitCommitting() {
+        Set<List<Change>> committing = Collections.newSetFromMap(new IdentityHashMap<>());
+        committing.addAll(inFlight);
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        try {
+            while (true) {
+                committing.retainAll(inFlight);
+                long remaining = deadline - System.nanoTime();
+                if (committing.isEmpty() || remaining <= 0) {
+                    return committing.isEmpty();
+                }
+                TimeUnit.NANOSECONDS.timedWait(journalLock, remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Scan scan() {
+        Scan scanned = new Scan();
+        ExecutorService executor = Executors.newFixedThreadPool(scanParallelism);
+        try {
+            List<CompletableFuture<Scan>> ranges = new ArrayList<>();
+            for (Integer shard : shardRouter.shards()) {
+                Long first = ShardContext.call(shard, personRepository::findFirstId);
+                Long last = ShardContext.call(shard, personRepository::findLastId);
+                if (first == null) {
+                    continue;
+                }
+                for (long from = first; from <= last; from += scanChunkSize) {
+                    long start = from;
+                    long end = Math.min(from + scanChunkSize - 1, last);
+                    ranges.add(CompletableFuture.supplyAsync(() -> ShardContext.call(shard, () -> scanRange(shard, start, end)), executor));
+                }
+            }
+            ranges.forEach(range -> scanned.addAll(range.join()));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return scanned;
+    }
+
+    private Scan scanRange(int shard, Long from, Long to) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<PersonRepository.StatsView> rows = readOnly.execute(status -> personRepository.findStatsByIdBetween(from, to));
+        Map<Long, Long> versions = new HashMap<>();
+        Map<Long, LocalDate> birthDates = new HashMap<>();
+        Map<Long, Set<String>> states = new HashMap<>();
+        Map<Long, Set<PhoneType>> phoneTypes = new HashMap<>();
+        for (PersonRepository.StatsView row : rows) {
+            versions.put(row.getId(), row.getVersion());
+            birthDates.put(row.getId(), row.getBirthDate());
+            Set<String> personStates = states.computeIfAbsent(row.getId(), id -> new HashSet<>());
+            Set<PhoneType> personPhoneTypes = phoneTypes.computeIfAbsent(row.getId(), id -> new HashSet<>());
+            if (row.getState() != null) {
+                personStates.add(row.getState());
+            }
+            if (row.getType() != null) {
+                personPhoneTypes.add(row.getType());
+            }
+        }
+        Scan range = new Scan();
+        birthDates.forEach((id, birthDate) -> range.counters.add(birthDate, states.get(id), phoneTypes.get(id)));
+        // Read after the query, so a change that is not watched yet commits after the rows above were read.
+        synchronized (journalLock) {
+            watched.stream().filter(id -> id >= from && id <= to && ownedBy(shard, id)).forEach(id -> {
+                range.covered.add(id);
+                if (versions.containsKey(id)) {
+                    range.versions.put(id, versions.get(id));
+                }
+            });
+        }
+        return range;
+    }
+
+    private boolean ownedBy(int shard, Long id) {
+        return shardRouter.getShardCount() == 1 || shardRouter.shardOf(id) == shard;
+    }
+
+    private List<Change> changes(PersonChangedEvent event) {
+        Map<Long, PersonDTO> previous = new HashMap<>();
+        event.getPrevious().forEach(person -> previous.put(person.getId(), person));
+        List<Change> changes = new ArrayList<>(event.getSaved().size() + event.getPrevious().size());
+        event.getSaved().forEach(person -> changes.add(new Change(person.getId(), previous.remove(person.getId()), person)));
+        previous.forEach((id, person) -> changes.add(new Change(id, person, null)));
+        return changes;
+    }
+
+    private static Set<String> states(PersonDTO person) {
+        if (person.getAddresses() == null) {
+            return Set.of();
+        }
+        return person.getAddresses().stream().map(AddressDTO::getState).collect(Collectors.toSet());
+    }
+
+    private static Set<PhoneType> phoneTypes(PersonDTO person) {
+        if (person.getPhones() == null) {
+            return Set.of();
+        }
+        return person.getPhones().stream().map(PhoneDTO::getType).collect(Collectors.toSet());
+    }
+
+    private static class Change {
+
+        private final Long id;
+        private final PersonDTO previous;
+        private final PersonDTO saved;
+
+        private Change(Long id, PersonDTO previous, PersonDTO saved) {
+            this.id = id;
+            this.previous = previous;
+            this.saved = saved;
+        }
+
+        private void applyTo(PersonCounters target) {
+            if (previous != null) {
+                target.subtract(previous.getBirthDate(), states(previous), phoneTypes(previous));
+            }
+            if (saved != null) {
+                target.add(saved.getBirthDate(), states(saved), phoneTypes(saved));
+            }
+        }
+
+        private boolean leaves(Long version) {
+            return saved == null ? version == null : Objects.equals(version, saved.getVersion());
+        }
+    }
+
+    private static class Scan {
+
+        private final PersonCounters counters = new PersonCounters();
+        private final Set<Long> covered = new HashSet<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        private void addAll(Scan range) {
+            counters.addAll(range.counters);
+            covered.addAll(range.covered);
+            versions.putAll(range.versions);
+        }
+
+        private void replay(List<Change> journal) {
+            Map<Long, List<Change>> byId = new LinkedHashMap<>();
+            journal.forEach(change -> byId.computeIfAbsent(change.id, id -> new ArrayList<>()).add(change));
+            byId.forEach((id, changes) -> {
+                int counted = 0;
+                if (covered.contains(id)) {
+                    for (int i = 0; i < changes.size(); i++) {
+                        if (changes.get(i).leaves(versions.get(id))) {
+                            counted = i + 1;
+                        }
+                    }
+                }
+                changes.subList(counted, changes.size()).forEach(change -> change.applyTo(counters));
+            });
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package one.digitalinnovation.personapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.WriteStatusDTO;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.enums.WriteStatus;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.exception.ServiceUnavailableException;
+import one.digitalinnovation.personapi.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Service
+public class PersonWriteBehindService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonWriteBehindService.class);
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    @Value("${personapi.write-behind.capacity:10000}")
+    int capacity;
+
+    @Value("${personapi.write-behind.batch-size:500}")
+    int batchSize;
+
+    @Value("${personapi.write-behind.shutdown-timeout:30s}")
+    Duration shutdownTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Object, PendingWrite> pending = new LinkedHashMap<>();
+    private final Cache<String, WriteStatusDTO> statuses = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    private volatile boolean running;
+    private Thread writer;
+
+    public WriteStatusDTO submitInsert(PersonDTO personDTO) {
+        personDTO.setId(null);
+        return submit(UUID.randomUUID(), null, personDTO);
+    }
+
+    public WriteStatusDTO submitUpdate(Long id, PersonDTO personDTO) {
+        personDTO.setVersion(null);
+        return submit(id, id, personDTO);
+    }
+
+    public WriteStatusDTO findStatus(String ticket) {
+        return Optional.ofNullable(statuses.getIfPresent(ticket))
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket não encontrado !"));
+    }
+
+    private WriteStatusDTO submit(Object key, Long id, PersonDTO personDTO) {
+        WriteStatusDTO status = WriteStatusDTO.builder()
+                .ticket(UUID.randomUUID().toString())
+                .id(id)
+                .status(WriteStatus.PENDING)
+                .build();
+        lock.lock();
+        try {
+            if (!running) {
+                throw new ServiceUnavailableException("Fila de escrita indisponível !");
+            }
+            PendingWrite write = pending.get(key);
+            if (write == null) {
+                if (pending.size() >= capacity) {
+                    throw new TooManyRequestsException("Fila de escrita cheia !");
+                }
+                write = new PendingWrite(id);
+                pending.put(key, write);
+                notEmpty.signal();
+            }
+            write.personDTO = personDTO;
+            write.tickets.add(status.getTicket());
+            statuses.put(status.getTicket(), status);
+        }
+        finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (true) {
+            lock.lock();
+            try {
+                while (pending.isEmpty() && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                Iterator<PendingWrite> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            try {
+                write(batch);
+            }
+            catch (Throwable e) {
+                // Anything escaping a batch, errors included, must not end the writer thread.
+                log.error("Falha ao gravar lote da fila de escrita", e);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                batch.stream()
+                        .filter(item -> !item.completed)
+                        .forEach(item -> complete(item, WriteStatus.FAILED, item.id, message));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        List<PendingWrite> inserts = batch.stream().filter(item -> item.id == null).collect(Collectors.toList());
+        List<PendingWrite> updates = batch.stream().filter(item -> item.id != null).collect(Collectors.toList());
+
+        if (!inserts.isEmpty()) {
+            List<PersonBatchResultDTO> results = personService.insertAll(inserts.stream()
+                    .map(item -> item.personDTO)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < inserts.size(); i++) {
+                PersonBatchResultDTO result = results.get(i);
+                complete(inserts.get(i), result.getStatus() == BatchItemStatus.CREATED ? WriteStatus.COMPLETED : WriteStatus.FAILED,
+                        result.getId(), result.getMessage());
+            }
+        }
+
+        Map<Integer, List<PendingWrite>> updatesByShard = updates.stream()
+                .collect(Collectors.groupingBy(item -> shardOf(item.id), TreeMap::new, Collectors.toList()));
+        updatesByShard.forEach((shard, shardUpdates) -> {
+            try {
+                ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status -> personService.putAfterCommit(shardUpdates.stream()
+                        .map(item -> personService.applyUpdate(item.personDTO, item.id))
+                        .collect(Collectors.toList()))));
+                shardUpdates.forEach(item -> complete(item, WriteStatus.COMPLETED, item.id, null));
+            }
+            catch (RuntimeException e) {
+                for (PendingWrite item : shardUpdates) {
+                    try {
+                        personService.update(item.personDTO, item.id);
+                        complete(item, WriteStatus.COMPLETED, item.id, null);
+                    }
+                    catch (RuntimeException ex) {
+                        complete(item, WriteStatus.FAILED, item.id, ex.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    // A batch transaction can only span one shard; with a single shard every id belongs to it.
+    private int shardOf(Long id) {
+        return shardRouter.getShardCount() == 1 ? ShardContext.DEFAULT_SHARD : shardRouter.shardOf(id);
+    }
+
+    private void complete(PendingWrite item, WriteStatus status, Long id, String message) {
+        item.completed = true;
+        item.tickets.forEach(ticket -> statuses.put(ticket, WriteStatusDTO.builder()
+                .ticket(ticket)
+                .id(id)
+                .status(status)
+                .message(message)
+                .build()));
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            running = true;
+            writer = new Thread(this::drain, "person-write-behind");
+            writer.start();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingWrite> abandoned;
+        lock.lock();
+        try {
+            abandoned = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("{} escritas ainda na fila após {} foram descartadas", abandoned.size(), shutdownTimeout);
+            abandoned.forEach(item -> complete(item, WriteStatus.FAILED, item.id, "Escrita descartada no desligamento !"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private static class PendingWrite {
+
+        private final Long id;
+        private final List<String> tickets = new ArrayList<>(1);
+        private PersonDTO personDTO;
+        private volatile boolean completed;
+
+        private PendingWrite(Long id) {
+            this.id = id;
+        }
+    }
+}
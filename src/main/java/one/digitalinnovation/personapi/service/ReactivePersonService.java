@@ -0,0 +1,76 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.repository.ReactivePersonRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+
+@Service
+@ConditionalOnProperty(value = "personapi.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactivePersonService {
+
+    @Autowired
+    ReactivePersonRepository reactivePersonRepository;
+
+    @Autowired
+    PersonService personService;
+
+    @Autowired
+    ObjectProvider<PersonShardingAspect> sharding;
+
+    @Value("${personapi.reactive.chunk-size:500}")
+    int chunkSize;
+
+    private boolean sharded;
+
+    @PostConstruct
+    void start() {
+        sharded = sharding.getIfAvailable() != null;
+    }
+
+    // R2DBC only reaches the default database, so with sharding the reads go through the sharded blocking service.
+    public Mono<PersonDTO> findById(Long id) {
+        if (sharded) {
+            return Mono.fromCallable(() -> personService.findById(id)).subscribeOn(Schedulers.boundedElastic());
+        }
+        return reactivePersonRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ID não encontrado !")));
+    }
+
+    public Mono<Page<PersonDTO>> findAll(Pageable pageable) {
+        if (sharded) {
+            return Mono.fromCallable(() -> personService.findAll(pageable)).subscribeOn(Schedulers.boundedElastic());
+        }
+        return Mono.zip(reactivePersonRepository.findPage(pageable.getOffset(), pageable.getPageSize()).collectList(),
+                        reactivePersonRepository.count())
+                .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    public Flux<PersonDTO> streamAll() {
+        if (sharded) {
+            return nextPage("")
+                    .expand(page -> page.getNextCursor() == null ? Mono.empty() : nextPage(page.getNextCursor()))
+                    .concatMapIterable(CursorPageDTO::getContent);
+        }
+        return reactivePersonRepository.streamAll(chunkSize);
+    }
+
+    private Mono<CursorPageDTO<PersonDTO>> nextPage(String after) {
+        return Mono.fromCallable(() -> personService.findAllAfter(after, PersonSortKey.ID.getDescription(), chunkSize, false))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,100 @@
+package one.digitalinnovation.personapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.personapi.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public class SingleFlight<K, V> {
+
+    public static final String LOADS_METRIC = "personapi.single-flight.loads";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final UnaryOperator<V> copier;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this(name, timeout, meterRegistry, UnaryOperator.identity());
+    }
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry, UnaryOperator<V> copier) {
+        this.timeout = timeout;
+        this.copier = copier;
+        this.executed = counter(meterRegistry, name, "executed");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.timedOut = counter(meterRegistry, name, "timeout");
+    }
+
+    // The first caller for a key runs the loader on its own thread; callers arriving while it runs wait for the same
+    // result or exception. Nothing is kept once the load completes, so this never serves stale data.
+    // Only waiters are bounded by the timeout: the first caller is limited by the loader itself, just as it would be
+    // without coalescing. Each waiter gets its own copy of the result and its own exception, wrapping the shared one.
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+        if (running == null) {
+            executed.increment();
+            try {
+                V value = loader.get();
+                load.complete(value);
+                return value;
+            }
+            catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+            finally {
+                inFlight.remove(key, load);
+            }
+        }
+        coalesced.increment();
+        return await(key, running);
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> running) {
+        try {
+            V value = running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return value == null ? null : copier.apply(value);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+        catch (TimeoutException e) {
+            timedOut.increment();
+            // A stuck load must not capture every later request, so the next caller starts a fresh one.
+            inFlight.remove(key, running);
+            throw new ServiceUnavailableException("Tempo de espera da consulta esgotado !");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Consulta interrompida !");
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder(LOADS_METRIC)
+                .tag("query", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
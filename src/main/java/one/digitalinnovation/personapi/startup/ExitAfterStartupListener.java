@@ -0,0 +1,18 @@
+package one.digitalinnovation.personapi.startup;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Training run for the AppCDS archive (cds Maven profile): start, warm up, then exit so the JVM dumps the loaded classes.
+@Component
+@ConditionalOnProperty(name = "personapi.startup.exit-after-ready", havingValue = "true")
+public class ExitAfterStartupListener {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit(ApplicationReadyEvent event) {
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
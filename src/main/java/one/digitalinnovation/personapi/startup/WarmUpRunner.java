@@ -0,0 +1,122 @@
+package one.digitalinnovation.personapi.startup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationStartupAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Application runners complete before ApplicationReadyEvent, which is what flips readiness to ACCEPTING_TRAFFIC.
+@Component
+@ConditionalOnProperty(name = "personapi.warm-up.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner, ApplicationStartupAware {
+
+    // Marks warm-up traffic so request metrics can leave it out.
+    public static final String WARM_UP_HEADER = "X-Warm-Up";
+
+    private static final List<String> GET_PATHS = List.of(
+            "/api/v1/person?size=20",
+            "/api/v1/person?size=20&expand=addresses,phones",
+            "/api/v1/person?after=&size=20",
+            "/api/v1/person/1",
+            "/api/v1/person/1?expand=addresses,phones",
+            "/api/v1/person/cpf/44453213387",
+            "/api/v1/person/search?q=warm",
+            "/api/v1/person/stats");
+
+    // Rejected by validation, so the POST path is exercised without writing anything.
+    private static final String INVALID_PERSON = "{\"firstName\":\"\",\"lastName\":\"\",\"cpf\":\"\"}";
+
+    @Autowired
+    HikariDataSource primaryDataSource;
+
+    @Autowired
+    Environment environment;
+
+    @Value("${personapi.warm-up.iterations:200}")
+    int iterations;
+
+    // Readiness waits for the warm-up, so after the first iteration it stops at this deadline even if iterations are left.
+    @Value("${personapi.warm-up.duration:2s}")
+    Duration duration;
+
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        StartupStep poolStep = applicationStartup.start("personapi.warm-up.connection-pool");
+        fillConnectionPool();
+        poolStep.tag("connections", String.valueOf(primaryDataSource.getMaximumPoolSize())).end();
+        String port = environment.getProperty("local.server.port");
+        if (port != null) {
+            StartupStep endpointsStep = applicationStartup.start("personapi.warm-up.endpoints");
+            int completed = warmUpEndpoints("http://localhost:" + port);
+            endpointsStep.tag("iterations", String.valueOf(completed)).end();
+        }
+    }
+
+    private void fillConnectionPool() throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < primaryDataSource.getMaximumPoolSize(); i++) {
+                connections.add(primaryDataSource.getConnection());
+            }
+        }
+        finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private int warmUpEndpoints(String baseUrl) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String path : GET_PATHS) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + path)).header(WARM_UP_HEADER, "true").GET().build());
+        }
+        requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/person"))
+                .header(WARM_UP_HEADER, "true")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(INVALID_PERSON))
+                .build());
+        long deadline = System.nanoTime() + duration.toNanos();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (HttpRequest request : requests) {
+                    if (i > 0 && System.nanoTime() - deadline >= 0) {
+                        return i;
+                    }
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+            }
+            return iterations;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
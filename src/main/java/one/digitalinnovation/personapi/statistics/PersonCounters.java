@@ -0,0 +1,82 @@
+package one.digitalinnovation.personapi.statistics;
+
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.enums.PhoneType;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Only the aggregate cells are kept; callers apply the before and after image of every change.
+public class PersonCounters {
+
+    public static final String UNKNOWN_BIRTH_DECADE = "unknown";
+
+    private long total;
+    private final Map<String, Long> byState = new HashMap<>();
+    private final Map<PhoneType, Long> byPhoneType = new EnumMap<>(PhoneType.class);
+    private final Map<String, Long> byBirthDecade = new HashMap<>();
+
+    public synchronized void add(LocalDate birthDate, Collection<String> states, Collection<PhoneType> phoneTypes) {
+        apply(birthDate, states, phoneTypes, 1);
+    }
+
+    public synchronized void subtract(LocalDate birthDate, Collection<String> states, Collection<PhoneType> phoneTypes) {
+        apply(birthDate, states, phoneTypes, -1);
+    }
+
+    public synchronized void addAll(PersonCounters other) {
+        synchronized (other) {
+            total += other.total;
+            other.byState.forEach((state, count) -> increment(byState, state, count));
+            other.byPhoneType.forEach((type, count) -> increment(byPhoneType, type, count));
+            other.byBirthDecade.forEach((decade, count) -> increment(byBirthDecade, decade, count));
+        }
+    }
+
+    public synchronized PersonStatsDTO snapshot() {
+        return PersonStatsDTO.builder()
+                .total(total)
+                .byState(new TreeMap<>(byState))
+                .byPhoneType(new EnumMap<>(byPhoneType))
+                .byBirthDecade(new TreeMap<>(byBirthDecade))
+                .build();
+    }
+
+    public static long distance(PersonStatsDTO a, PersonStatsDTO b) {
+        return Math.abs(a.getTotal() - b.getTotal())
+                + distance(a.getByState(), b.getByState())
+                + distance(a.getByPhoneType(), b.getByPhoneType())
+                + distance(a.getByBirthDecade(), b.getByBirthDecade());
+    }
+
+    static String birthDecade(LocalDate birthDate) {
+        if (birthDate == null) {
+            return UNKNOWN_BIRTH_DECADE;
+        }
+        int decade = Math.floorDiv(birthDate.getYear(), 10) * 10;
+        return decade + "-" + (decade + 9);
+    }
+
+    private static <K> long distance(Map<K, Long> a, Map<K, Long> b) {
+        Set<K> keys = new HashSet<>(a.keySet());
+        keys.addAll(b.keySet());
+        return keys.stream().mapToLong(key -> Math.abs(a.getOrDefault(key, 0L) - b.getOrDefault(key, 0L))).sum();
+    }
+
+    private void apply(LocalDate birthDate, Collection<String> states, Collection<PhoneType> phoneTypes, long delta) {
+        total += delta;
+        increment(byBirthDecade, birthDecade(birthDate), delta);
+        Set.copyOf(states).forEach(state -> increment(byState, state, delta));
+        Set.copyOf(phoneTypes).forEach(type -> increment(byPhoneType, type, delta));
+    }
+
+    private static <K> void increment(Map<K, Long> counters, K key, long delta) {
+        counters.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+}
@@ -0,0 +1,73 @@
+package one.digitalinnovation.personapi.statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class StatementCounter {
+
+    private static final ThreadLocal<List<Counts>> ACTIVE = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static Counts start() {
+        List<Counts> active = ACTIVE.get();
+        if (active == null) {
+            active = new ArrayList<>(2);
+            ACTIVE.set(active);
+        }
+        Counts counts = new Counts();
+        active.add(counts);
+        return counts;
+    }
+
+    public static void stop(Counts counts) {
+        List<Counts> active = ACTIVE.get();
+        if (active != null) {
+            active.remove(counts);
+            if (active.isEmpty()) {
+                ACTIVE.remove();
+            }
+        }
+    }
+
+    static void statementPrepared() {
+        List<Counts> active = ACTIVE.get();
+        if (active != null) {
+            active.forEach(counts -> counts.statements++);
+        }
+    }
+
+    static void entityLoaded() {
+        List<Counts> active = ACTIVE.get();
+        if (active != null) {
+            active.forEach(counts -> counts.entityLoads++);
+        }
+    }
+
+    static void collectionFetched() {
+        List<Counts> active = ACTIVE.get();
+        if (active != null) {
+            active.forEach(counts -> counts.collectionFetches++);
+        }
+    }
+
+    public static final class Counts {
+
+        private long statements;
+        private long entityLoads;
+        private long collectionFetches;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getCollectionFetches() {
+            return collectionFetches;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.personapi.statistics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        StatementCounter.statementPrepared();
+        return sql;
+    }
+}
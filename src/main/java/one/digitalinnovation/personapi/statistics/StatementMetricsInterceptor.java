@@ -0,0 +1,63 @@
+package one.digitalinnovation.personapi.statistics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.personapi.startup.WarmUpRunner;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class StatementMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COUNTS_ATTRIBUTE = StatementMetricsInterceptor.class.getName() + ".counts";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getHeader(WarmUpRunner.WARM_UP_HEADER) != null) {
+            return true;
+        }
+        request.setAttribute(COUNTS_ATTRIBUTE, StatementCounter.start());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.Counts counts = (StatementCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts != null) {
+            StatementCounter.stop(counts);
+            request.removeAttribute(COUNTS_ATTRIBUTE);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter.Counts counts = (StatementCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts == null) {
+            return;
+        }
+        StatementCounter.stop(counts);
+        request.removeAttribute(COUNTS_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        record("personapi.request.statements", "statements", uri, request, counts.getStatements());
+        record("personapi.request.entity.loads", "entities", uri, request, counts.getEntityLoads());
+        record("personapi.request.collection.fetches", "collections", uri, request, counts.getCollectionFetches());
+    }
+
+    private void record(String name, String unit, String uri, HttpServletRequest request, long value) {
+        DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(value);
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.personapi.validation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class CpfValidator implements ConstraintValidator<ValidCpf, CharSequence> {
+
+    private static final int RAW_LENGTH = 11;
+    private static final int FORMATTED_LENGTH = 14;
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || isValid(value);
+    }
+
+    public static String normalize(String cpf) {
+        if (cpf == null || cpf.length() != FORMATTED_LENGTH || !isValid(cpf)) {
+            return cpf;
+        }
+        return cpf.substring(0, 3) + cpf.substring(4, 7) + cpf.substring(8, 11) + cpf.substring(12);
+    }
+
+    public static boolean isValid(CharSequence cpf) {
+        int length = cpf.length();
+        boolean formatted = length == FORMATTED_LENGTH;
+        if (!formatted && length != RAW_LENGTH) {
+            return false;
+        }
+        int digits = 0;
+        int first = 0;
+        boolean repeated = true;
+        int firstSum = 0;
+        int secondSum = 0;
+        int firstCheck = 0;
+        int secondCheck = 0;
+        for (int i = 0; i < length; i++) {
+            char c = cpf.charAt(i);
+            if (formatted && (i == 3 || i == 7)) {
+                if (c != '.') {
+                    return false;
+                }
+                continue;
+            }
+            if (formatted && i == 11) {
+                if (c != '-') {
+                    return false;
+                }
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            int digit = c - '0';
+            if (digits == 0) {
+                first = digit;
+            }
+            else if (digit != first) {
+                repeated = false;
+            }
+            if (digits < 9) {
+                firstSum += digit * (10 - digits);
+                secondSum += digit * (11 - digits);
+            }
+            else if (digits == 9) {
+                firstCheck = digit;
+                secondSum += digit * 2;
+            }
+            else {
+                secondCheck = digit;
+            }
+            digits++;
+        }
+        return !repeated
+                && firstCheck == firstSum * 10 % 11 % 10
+                && secondCheck == secondSum * 10 % 11 % 10;
+    }
+}
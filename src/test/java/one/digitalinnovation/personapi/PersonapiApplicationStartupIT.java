@@ -0,0 +1,156 @@
+package one.digitalinnovation.personapi;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+// Budgets come from a tracked baseline. By default each step is checked by its share of the startup time, give or take
+// a tolerance in percentage points, which holds across machines and warm or cold JVMs; absolute wall-clock budgets are opt-in.
+// Settings, as system properties or environment variables: personapi.startup.share-tolerance (PERSONAPI_STARTUP_SHARE_TOLERANCE),
+// personapi.startup.margin (PERSONAPI_STARTUP_MARGIN), personapi.startup.absolute-budgets (PERSONAPI_STARTUP_ABSOLUTE_BUDGETS),
+// personapi.startup.budget (PERSONAPI_STARTUP_BUDGET, implies absolute budgets)
+// and personapi.startup.baseline (PERSONAPI_STARTUP_BASELINE, a properties file measured on that machine).
+class PersonapiApplicationStartupIT {
+
+	private static final String STEP_PREFIX = "step.";
+
+	private static final String MILLIS_SUFFIX = ".millis";
+
+	// Its length is mostly set by personapi.warm-up.duration, not by startup work, so it is left out of the step shares.
+	private static final String WARM_UP_STEP = "personapi.warm-up.endpoints";
+
+	@Test
+	void prodProfileShouldBeReadyWithinBudgetWhenStartedWithWarmUp() throws IOException {
+		Properties baseline = baseline();
+		double margin = Double.parseDouble(setting("personapi.startup.margin", "0.2"));
+		double shareTolerance = Double.parseDouble(setting("personapi.startup.share-tolerance", "0.2"));
+		String budgetOverride = setting("personapi.startup.budget", null);
+		boolean absoluteBudgets = budgetOverride != null || Boolean.parseBoolean(setting("personapi.startup.absolute-budgets", "false"));
+		long baselineTotal = Long.parseLong(baseline.getProperty("total.millis"));
+		Duration budget = budgetOverride != null ? DurationStyle.detectAndParse(budgetOverride) : withMargin(baselineTotal, margin);
+
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(PersonapiApplication.STARTUP_TIMELINE_CAPACITY);
+		SpringApplication application = new SpringApplication(PersonapiApplication.class);
+		application.setApplicationStartup(startup);
+
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext context = application.run(
+				"--spring.profiles.active=prod",
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:startup",
+				"--spring.r2dbc.url=r2dbc:h2:mem:///startup")) {
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+			List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+			StartupTimeline.TimelineEvent endpoints = step(events, WARM_UP_STEP);
+
+			if (absoluteBudgets) {
+				Assertions.assertTrue(elapsed.compareTo(budget) <= 0,
+						() -> "Startup took " + elapsed + ", budget " + budget + ", slowest steps: " + slowestSteps(events));
+			}
+			long baselineWithoutWarmUp = baselineTotal - Long.parseLong(baseline.getProperty(STEP_PREFIX + WARM_UP_STEP + MILLIS_SUFFIX, "0"));
+			long elapsedWithoutWarmUp = elapsed.minus(endpoints.getDuration()).toMillis();
+			for (String key : baseline.stringPropertyNames()) {
+				if (key.startsWith(STEP_PREFIX)) {
+					String name = key.substring(STEP_PREFIX.length(), key.length() - MILLIS_SUFFIX.length());
+					long baselineStep = Long.parseLong(baseline.getProperty(key));
+					Duration stepElapsed = step(events, name).getDuration();
+					if (absoluteBudgets) {
+						Duration stepBudget = withMargin(baselineStep, margin);
+						Assertions.assertTrue(stepElapsed.compareTo(stepBudget) <= 0,
+								() -> name + " took " + stepElapsed + ", budget " + stepBudget);
+					}
+					if (!name.equals(WARM_UP_STEP)) {
+						double shareBudget = (double) baselineStep / baselineWithoutWarmUp + shareTolerance;
+						double share = (double) stepElapsed.toMillis() / elapsedWithoutWarmUp;
+						Assertions.assertTrue(share <= shareBudget,
+								() -> name + " took " + Math.round(share * 100) + "% of startup, budget " + Math.round(shareBudget * 100) + "%");
+					}
+				}
+			}
+			long instantiated = events.stream().filter(event -> event.getStartupStep().getName().equals("spring.beans.instantiate")).count();
+			long eagerBudget = Long.parseLong(baseline.getProperty("beans.instantiated"));
+			Assertions.assertTrue(instantiated <= eagerBudget,
+					() -> instantiated + " beans were created during startup, the baseline allows " + eagerBudget);
+
+			StartupTimeline.TimelineEvent refresh = step(events, "spring.context.refresh");
+			StartupTimeline.TimelineEvent pool = step(events, "personapi.warm-up.connection-pool");
+			Assertions.assertFalse(pool.getStartTime().isBefore(refresh.getEndTime()));
+			Assertions.assertFalse(endpoints.getStartTime().isBefore(pool.getEndTime()));
+			int iterations = Integer.parseInt(tag(endpoints, "iterations"));
+			Assertions.assertTrue(iterations > 0 && iterations <= context.getEnvironment().getProperty("personapi.warm-up.iterations", Integer.class));
+			Assertions.assertNull(context.getBean(MeterRegistry.class).find("personapi.request.statements").summary());
+
+			Assertions.assertEquals(ReadinessState.ACCEPTING_TRAFFIC, context.getBean(ApplicationAvailability.class).getReadinessState());
+			Assertions.assertFalse(context.containsBean("swaggerConfig"));
+			HikariDataSource dataSource = context.getBean("primaryDataSource", HikariDataSource.class);
+			Assertions.assertEquals(String.valueOf(dataSource.getMaximumPoolSize()), tag(pool, "connections"));
+			Assertions.assertEquals(dataSource.getMaximumPoolSize(), dataSource.getHikariPoolMXBean().getTotalConnections());
+		}
+	}
+
+	private static Properties baseline() throws IOException {
+		Properties baseline = new Properties();
+		String path = setting("personapi.startup.baseline", null);
+		try (InputStream in = path != null ? Files.newInputStream(Paths.get(path))
+				: PersonapiApplicationStartupIT.class.getResourceAsStream("/startup-baseline.properties")) {
+			baseline.load(in);
+		}
+		return baseline;
+	}
+
+	private static String setting(String property, String defaultValue) {
+		String value = System.getProperty(property);
+		if (value == null) {
+			value = System.getenv(property.toUpperCase().replace('.', '_').replace('-', '_'));
+		}
+		return value != null ? value : defaultValue;
+	}
+
+	private static Duration withMargin(long baselineMillis, double margin) {
+		return Duration.ofMillis(Math.round(baselineMillis * (1 + margin)));
+	}
+
+	private static StartupTimeline.TimelineEvent step(List<StartupTimeline.TimelineEvent> events, String name) {
+		return events.stream()
+				.filter(event -> event.getStartupStep().getName().equals(name))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("Startup step " + name + " was not recorded"));
+	}
+
+	private static String tag(StartupTimeline.TimelineEvent event, String key) {
+		return StreamSupport.stream(event.getStartupStep().getTags().spliterator(), false)
+				.filter(tag -> tag.getKey().equals(key))
+				.map(StartupStep.Tag::getValue)
+				.findFirst()
+				.orElse(null);
+	}
+
+	private static String slowestSteps(List<StartupTimeline.TimelineEvent> events) {
+		return events.stream()
+				.sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+				.limit(10)
+				.map(event -> event.getStartupStep().getName() + " " + event.getDuration().toMillis() + "ms")
+				.collect(Collectors.joining(", "));
+	}
+
+}
@@ -1,24 +1,41 @@
 package one.digitalinnovation.personapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import one.digitalinnovation.personapi.config.CacheConfig;
+import one.digitalinnovation.personapi.converter.PersonProtobufHttpMessageConverter;
 import one.digitalinnovation.personapi.dto.PersonDTO;
 import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.mapper.PersonProtoMapper;
+import one.digitalinnovation.personapi.protobuf.PersonProtos;
 import one.digitalinnovation.personapi.repository.PersonRepository;
 import one.digitalinnovation.personapi.service.PersonService;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Set;
+
+import static one.digitalinnovation.personapi.util.StatementCountAssertions.assertMaxStatements;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +63,12 @@ public class PersonControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() throws Exception{
         nonExistingId = 1000000L;
@@ -87,6 +110,76 @@ public class PersonControllerIT {
                 .andExpect(jsonPath("$.firstName").exists());
     }
 
+    @Test
+    public void findByIdShouldEncodeCborAndSmileWhenAcceptingBinaryJackson() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+
+        for (MediaType mediaType : new MediaType[] {MediaType.APPLICATION_CBOR, new MediaType("application", "x-jackson-smile")}) {
+            byte[] body = mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                            .param("expand", "addresses,phones")
+                            .accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(mediaType))
+                    .andReturn().getResponse().getContentAsByteArray();
+            ObjectMapper binaryMapper = Jackson2ObjectMapperBuilder.json()
+                    .factory(mediaType.equals(MediaType.APPLICATION_CBOR) ? new CBORFactory() : new SmileFactory())
+                    .build();
+            PersonDTO decoded = binaryMapper.readValue(body, PersonDTO.class);
+            Assertions.assertEquals(existingId, decoded.getId());
+            Assertions.assertEquals(personDTO.getBirthDate(), decoded.getBirthDate());
+            Assertions.assertEquals(personDTO.getAddresses().size(), decoded.getAddresses().size());
+        }
+    }
+
+    @Test
+    public void findAllShouldEncodeProtobufPageWhenAcceptingProtobuf() throws Exception {
+        PersonDTO saved = personService.insert(personDTO);
+
+        byte[] body = mockMvc.perform(get("/api/v1/person?page=0&size=1&sort=id,desc&expand=addresses,phones")
+                        .accept(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        PersonProtos.PersonPage page = PersonProtos.PersonPage.parseFrom(body);
+
+        Assertions.assertEquals(personRepository.count(), page.getTotalElements());
+        PersonDTO decoded = PersonProtoMapper.toDto(page.getContent(0));
+        Assertions.assertEquals(saved.getId(), decoded.getId());
+        Assertions.assertEquals(saved.getBirthDate(), decoded.getBirthDate());
+        Assertions.assertEquals(saved.getPhones(), decoded.getPhones());
+    }
+
+    @Test
+    public void insertShouldReadProtobufBodyWhenContentTypeIsProtobuf() throws Exception {
+        mockMvc.perform(post("/api/v1/person")
+                        .content(PersonProtoMapper.toProto(personDTO).toByteArray())
+                        .contentType(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.cpf").value(personDTO.getCpf()))
+                .andExpect(jsonPath("$.addresses.length()").value(personDTO.getAddresses().size()));
+    }
+
+    @Test
+    public void findByIdShouldEncodeProtobufErrorWhenNonExistingIdAndAcceptingProtobuf() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v1/person/{id}", nonExistingId)
+                        .accept(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Assertions.assertEquals(404, PersonProtos.Error.parseFrom(body).getStatus());
+    }
+
+    @Test
+    public void findByIdShouldReturnJsonWhenAcceptingAnyMediaType() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     public void findByIdShouldTrowNotFoundWhenNomExistingId() throws Exception {
         mockMvc.perform(get("/api/v1/person/{id}", nonExistingId)
@@ -94,6 +187,23 @@ public class PersonControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void findByCpfShouldReturnPersonDtoWhenExistingCpf() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+
+        mockMvc.perform(get("/api/v1/person/cpf/{cpf}", personDTO.getCpf())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(existingId));
+    }
+
+    @Test
+    public void findByCpfShouldReturnNotFoundWhenNonExistingCpf() throws Exception {
+        mockMvc.perform(get("/api/v1/person/cpf/{cpf}", "82737002320")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void findAllShouldReturnSortedPageWhenRequestPageSortedByFirstName() throws Exception {
         pageRequest = PageRequest.of(0,2, Sort.by("firstName"));
@@ -112,13 +222,62 @@ public class PersonControllerIT {
                 .andExpect(jsonPath("$.content[1].firstName").value("FirstName"));
     }
 
+    @Test
+    public void findAllShouldOmitCollectionsUnlessExpandedWhenGivenExpandParameter() throws Exception {
+        personService.insert(personDTO);
+
+        mockMvc.perform(get("/api/v1/person?page=0&size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].cpf").value(personDTO.getCpf()))
+                .andExpect(jsonPath("$.content[0].addresses").doesNotExist())
+                .andExpect(jsonPath("$.content[0].phones").doesNotExist());
+        mockMvc.perform(get("/api/v1/person?page=0&size=1&expand=phones")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].addresses").doesNotExist())
+                .andExpect(jsonPath("$.content[0].phones").isArray());
+    }
+
+    @Test
+    public void findAllAfterShouldReturnCursorPageWhenRequestWithEmptyCursor() throws Exception {
+        personService.insert(personDTO);
+        personDTO.setCpf("82737002320");
+        personService.insert(personDTO);
+
+        mockMvc.perform(get("/api/v1/person?after=&size=1&sort=id,desc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    public void findAllAfterShouldReturnBadRequestWhenInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/person?after=invalid&size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void deleteShouldReturnPersonDtoWhenExistingId() throws Exception {
         existingId = personService.insert(personDTO).getId();
 
+        mockMvc.perform(delete("/api/v1/person/{id}?returnDeleted=true", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(existingId));
+    }
+
+    @Test
+    public void deleteShouldReturnNoContentWhenExistingId() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+
         mockMvc.perform(delete("/api/v1/person/{id}", existingId)
                         .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isNoContent());
+        Assertions.assertFalse(personRepository.existsById(existingId));
     }
 
     @Test
@@ -142,6 +301,58 @@ public class PersonControllerIT {
                 .andExpect(jsonPath("$.firstName").value(firstNameSaved));
     }
 
+    @Test
+    public void updateShouldKeepChildrenWhenPuttingBackSummaryFromFindById() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+        ObjectNode summary = (ObjectNode) objectMapper.readTree(mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addresses").doesNotExist())
+                .andReturn().getResponse().getContentAsString());
+
+        mockMvc.perform(put("/api/v1/person/{id}", existingId)
+                        .content(objectMapper.writeValueAsString(summary.put("lastName", "Summary")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("Summary"))
+                .andExpect(jsonPath("$.addresses.length()").value(personDTO.getAddresses().size()))
+                .andExpect(jsonPath("$.phones.length()").value(personDTO.getPhones().size()));
+    }
+
+    @Test
+    public void updateShouldKeepChildrenWhenPuttingBackProtobufSummaryFromFindById() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+        byte[] summary = mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        mockMvc.perform(put("/api/v1/person/{id}", existingId)
+                        .content(summary)
+                        .contentType(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addresses.length()").value(personDTO.getAddresses().size()))
+                .andExpect(jsonPath("$.phones.length()").value(personDTO.getPhones().size()));
+    }
+
+    @Test
+    public void updateShouldRemoveChildrenWhenCollectionsAreSentEmpty() throws Exception {
+        PersonDTO personDTOSaved = personService.insert(personDTO);
+        personDTOSaved.setAddresses(Set.of());
+        personDTOSaved.setPhones(Set.of());
+        byte[] body = PersonProtoMapper.toProto(personDTOSaved).toByteArray();
+
+        mockMvc.perform(put("/api/v1/person/{id}", personDTOSaved.getId())
+                        .content(body)
+                        .contentType(PersonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addresses.length()").value(0))
+                .andExpect(jsonPath("$.phones.length()").value(0));
+    }
+
     @Test
     public void updateShouldThrowResourceNotFoundExceptionWhenGivenBodyandNonExistingId() throws Exception {
         PersonDTO personDTOSaved = personService.insert(personDTO);
@@ -154,4 +365,80 @@ public class PersonControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void findByIdShouldReturnNotModifiedWhenIfNoneMatchEqualsETag() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+        String eTag = mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void updateShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+        PersonDTO personDTOSaved = personService.insert(personDTO);
+
+        mockMvc.perform(put("/api/v1/person/{id}", personDTOSaved.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (personDTOSaved.getVersion() + 1) + "\"")
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void findAllShouldNotIssueStatementsPerPersonWhenPageHasSeveralPersons() throws Exception {
+        personService.insert(personDTO);
+        personDTO.setCpf("82737002320");
+        personService.insert(personDTO);
+        personDTO.setCpf("71428793860");
+        personService.insert(personDTO);
+        entityManager.clear();
+
+        assertMaxStatements(4, () -> mockMvc.perform(get("/api/v1/person?page=0&size=3")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3)));
+    }
+
+    @Test
+    public void findByIdShouldExecuteAtMostThreeStatementsWhenCacheIsCold() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+        cacheManager.getCache(CacheConfig.PERSONS).clear();
+        entityManager.clear();
+
+        assertMaxStatements(3, () -> mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    public void updateShouldExecuteAtMostFourStatementsWhenLastNameChanges() throws Exception {
+        PersonDTO personDTOSaved = personService.insert(personDTO);
+        entityManager.clear();
+        personDTOSaved.setLastName("Silva");
+        String body = objectMapper.writeValueAsString(personDTOSaved);
+
+        assertMaxStatements(4, () -> mockMvc.perform(put("/api/v1/person/{id}", personDTOSaved.getId())
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    public void deleteShouldExecuteAtMostSevenStatementsWhenExistingId() throws Exception {
+        existingId = personService.insert(personDTO).getId();
+        entityManager.clear();
+
+        assertMaxStatements(7, () -> mockMvc.perform(delete("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent()));
+    }
+
 }
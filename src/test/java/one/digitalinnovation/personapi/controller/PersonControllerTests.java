@@ -1,14 +1,34 @@
 package one.digitalinnovation.personapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.personapi.dto.ImportJobDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.dto.WriteStatusDTO;
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.ImportStatus;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import one.digitalinnovation.personapi.enums.WriteStatus;
 import one.digitalinnovation.personapi.exception.ConstraintViolationException;
 import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.exception.ServiceUnavailableException;
+import one.digitalinnovation.personapi.exception.TooManyRequestsException;
 import one.digitalinnovation.personapi.factory.PersonDTOFactory;
 import one.digitalinnovation.personapi.factory.PersonFactory;
 import one.digitalinnovation.personapi.mapper.PersonMapper;
+import one.digitalinnovation.personapi.service.CoalescingPersonService;
+import one.digitalinnovation.personapi.service.PersonImportService;
+import one.digitalinnovation.personapi.service.PersonSearchService;
+import one.digitalinnovation.personapi.service.PersonStatsService;
 import one.digitalinnovation.personapi.service.PersonService;
+import one.digitalinnovation.personapi.service.PersonWriteBehindService;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -18,9 +38,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +72,21 @@ public class PersonControllerTests {
     @MockBean
     private PersonService personService;
 
+    @MockBean
+    private CoalescingPersonService coalescingPersonService;
+
+    @MockBean
+    private PersonImportService personImportService;
+
+    @MockBean
+    private PersonWriteBehindService personWriteBehindService;
+
+    @MockBean
+    private PersonSearchService personSearchService;
+
+    @MockBean
+    private PersonStatsService personStatsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -85,18 +130,86 @@ public class PersonControllerTests {
                 .andExpect(status().is(400));
     }
 
+    @Test
+    public void insertAllShouldReturnResultPerItemWhenGivenListOfPersonDto() throws Exception {
+        List<PersonBatchResultDTO> results = List.of(
+                new PersonBatchResultDTO(0, existingId, BatchItemStatus.CREATED, null),
+                new PersonBatchResultDTO(1, null, BatchItemStatus.REJECTED, "CPF inválido !"));
+        Mockito.when(personService.insertAll(List.of(personDto, personDtoWithInvalidCPF))).thenReturn(results);
+
+        mockMvc.perform(post("/api/v1/person/batch")
+                        .content(objectMapper.writeValueAsString(List.of(personDto, personDtoWithInvalidCPF)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+    }
+
+    @Test
+    public void searchShouldReturnRankedResultsWhenGivenQuery() throws Exception {
+        Mockito.when(personSearchService.search("joao", 5)).thenReturn(List.of(
+                new PersonSearchResultDTO(existingId, "João", "Silva", 30)));
+
+        mockMvc.perform(get("/api/v1/person/search")
+                        .param("q", "joao")
+                        .param("limit", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(existingId))
+                .andExpect(jsonPath("$[0].firstName").value("João"));
+    }
+
+    @Test
+    public void searchShouldReturnBadRequestWhenLimitIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/v1/person/search")
+                        .param("q", "joao")
+                        .param("limit", "101")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(personSearchService);
+    }
+
+    @Test
+    public void statsShouldReturnCountersWhenRequested() throws Exception {
+        Mockito.when(personStatsService.stats()).thenReturn(PersonStatsDTO.builder()
+                .total(1)
+                .byState(Map.of("SP", 1L))
+                .byPhoneType(Map.of(PhoneType.HOME, 1L))
+                .byBirthDecade(Map.of("1990-1999", 1L))
+                .build());
+
+        mockMvc.perform(get("/api/v1/person/stats")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.byState.SP").value(1))
+                .andExpect(jsonPath("$.byPhoneType.HOME").value(1));
+    }
+
     @Test
     public void findByIdShouldTrowNotFoundWhenNomExistingId() throws Exception {
-        Mockito.doThrow(ResourceNotFoundException.class).when(personService).findById(nonExistingId);
+        Mockito.doThrow(ResourceNotFoundException.class).when(coalescingPersonService).findById(nonExistingId, EnumSet.noneOf(PersonExpansion.class));
 
         mockMvc.perform(get("/api/v1/person/{id}", nonExistingId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void findByIdShouldReturnServiceUnavailableWhenCoalescedLoadTimesOut() throws Exception {
+        Mockito.doThrow(new ServiceUnavailableException("Tempo de espera da consulta esgotado !"))
+                .when(coalescingPersonService).findById(existingId, EnumSet.noneOf(PersonExpansion.class));
+
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     public void findByIdShouldReturnPersonDtoWhenExistingId() throws Exception {
-        Mockito.when(personService.findById(existingId)).thenReturn(personDto);
+        Mockito.when(coalescingPersonService.findById(existingId, EnumSet.noneOf(PersonExpansion.class))).thenReturn(personDto);
 
         mockMvc.perform(get("/api/v1/person/{id}", existingId)
                         .accept(MediaType.APPLICATION_JSON))
@@ -107,7 +220,7 @@ public class PersonControllerTests {
 
     @Test
     public void findAllShouldReturnPageOfPersonDtoWhenGivenPageable() throws Exception {
-        Mockito.when(personService.findAll((Pageable) ArgumentMatchers.any())).thenReturn(pagePersonDto);
+        Mockito.when(coalescingPersonService.findAll(ArgumentMatchers.eq(new PersonFilterDTO()), ArgumentMatchers.any(Pageable.class), ArgumentMatchers.eq(EnumSet.noneOf(PersonExpansion.class)))).thenReturn(pagePersonDto);
 
         mockMvc.perform(get("/api/v1/person")
                         .accept(MediaType.APPLICATION_JSON))
@@ -115,17 +228,142 @@ public class PersonControllerTests {
     }
 
     @Test
-    public void deleteShouldReturnPersonDtoWhenExistingId() throws Exception {
+    public void findAllShouldBindFilterWhenGivenQueryParameters() throws Exception {
+        PersonFilterDTO filter = PersonFilterDTO.builder()
+                .city("city")
+                .state("state")
+                .zipCode("1111111")
+                .birthDateFrom(LocalDate.of(1990, 1, 1))
+                .birthDateTo(LocalDate.of(1999, 12, 31))
+                .phoneType(PhoneType.HOME)
+                .build();
+        Mockito.when(coalescingPersonService.findAll(ArgumentMatchers.eq(filter), ArgumentMatchers.any(Pageable.class), ArgumentMatchers.eq(EnumSet.noneOf(PersonExpansion.class)))).thenReturn(pagePersonDto);
+
+        mockMvc.perform(get("/api/v1/person")
+                        .param("city", "city")
+                        .param("state", "state")
+                        .param("zipCode", "1111111")
+                        .param("birthDateFrom", "1990-01-01")
+                        .param("birthDateTo", "1999-12-31")
+                        .param("phoneType", "HOME")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].firstName").exists());
+    }
+
+    @Test
+    public void findAllShouldPassExpansionsToServiceWhenGivenExpandParameter() throws Exception {
+        Mockito.when(coalescingPersonService.findAll(ArgumentMatchers.eq(new PersonFilterDTO()), ArgumentMatchers.any(Pageable.class),
+                ArgumentMatchers.eq(EnumSet.of(PersonExpansion.ADDRESSES, PersonExpansion.PHONES)))).thenReturn(pagePersonDto);
+
+        mockMvc.perform(get("/api/v1/person")
+                        .param("expand", "addresses,phones")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].addresses").exists());
+    }
+
+    @Test
+    public void findByIdShouldReturnBadRequestWhenGivenUnknownExpansion() throws Exception {
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .param("expand", "documents")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportShouldStreamOneJsonLinePerPersonWhenPersonsExist() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<List<PersonDTO>>>getArgument(0).accept(List.of(personDto, personDto));
+            return null;
+        }).when(personService).exportAll(ArgumentMatchers.any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/person/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals(2, body.lines().count());
+        Assertions.assertEquals(personDto, objectMapper.readValue(body.lines().findFirst().get(), PersonDTO.class));
+    }
+
+    @Test
+    public void exportShouldCompressResponseWhenAcceptEncodingGzip() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<List<PersonDTO>>>getArgument(0).accept(List.of(personDto));
+            return null;
+        }).when(personService).exportAll(ArgumentMatchers.any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/person/export")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes());
+        Assertions.assertEquals(personDto, objectMapper.readValue(json.trim(), PersonDTO.class));
+    }
+
+    @Test
+    public void importPersonsShouldReturnImportJobWhenGivenCsvBody() throws Exception {
+        ImportJobDTO job = ImportJobDTO.builder().id("job-1").format(ImportFormat.CSV).status(ImportStatus.COMPLETED).build();
+        Mockito.when(personImportService.importPersons(ArgumentMatchers.eq("job-1"), ArgumentMatchers.eq(ImportFormat.CSV), ArgumentMatchers.any()))
+                .thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/person/import?jobId=job-1")
+                        .content("firstName,lastName,cpf\nAna,Silva,44453213387\n")
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    public void importPersonsShouldReturnBadRequestWhenJobIdEscapesRejectsDir() throws Exception {
+        mockMvc.perform(post("/api/v1/person/import?jobId=../../x")
+                        .content("firstName,lastName,cpf\nAna,Silva,44453213387\n")
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(personImportService);
+    }
+
+    @Test
+    public void deleteShouldReturnPersonDtoWhenExistingIdAndReturnDeleted() throws Exception {
         Mockito.when(personService.delete(existingId)).thenReturn(personDto);
 
+        mockMvc.perform(delete("/api/v1/person/{id}?returnDeleted=true", existingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").exists());
+    }
+
+    @Test
+    public void deleteShouldReturnNoContentWhenExistingId() throws Exception {
         mockMvc.perform(delete("/api/v1/person/{id}", existingId)
                         .accept(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isNoContent());
+        Mockito.verify(personService).deleteById(existingId);
+    }
+
+    @Test
+    public void deleteAllShouldReturnNoContentWhenGivenIds() throws Exception {
+        mockMvc.perform(delete("/api/v1/person?ids=1,2,3")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+        Mockito.verify(personService).deleteAllById(List.of(1L, 2L, 3L));
     }
 
     @Test
     public void deleteShouldThrowNotFoundWhenNomExistingId() throws Exception {
-        Mockito.doThrow(ResourceNotFoundException.class).when(personService).delete(nonExistingId);
+        Mockito.doThrow(ResourceNotFoundException.class).when(personService).deleteById(nonExistingId);
 
         mockMvc.perform(delete("/api/v1/person/{id}", nonExistingId)
                         .accept(MediaType.APPLICATION_JSON))
@@ -155,4 +393,154 @@ public class PersonControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void patchShouldReturnPersonDtoWhenGivenMergePatchAndExistingId() throws Exception {
+        Mockito.when(personService.patch(ArgumentMatchers.eq(existingId), ArgumentMatchers.any())).thenReturn(personDto);
+
+        mockMvc.perform(patch("/api/v1/person/{id}", existingId)
+                        .content("{\"lastName\":\"Silva\"}")
+                        .contentType("application/merge-patch+json")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").exists());
+    }
+
+    @Test
+    public void patchShouldReturnUnsupportedMediaTypeWhenGivenPlainJson() throws Exception {
+        mockMvc.perform(patch("/api/v1/person/{id}", existingId)
+                        .content("{\"lastName\":\"Silva\"}")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void findByIdShouldReturnNotModifiedWhenIfNoneMatchEqualsVersion() throws Exception {
+        Mockito.when(personService.findVersion(existingId)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-summary\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3-summary\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        Mockito.verify(coalescingPersonService, Mockito.never()).findById(ArgumentMatchers.eq(existingId), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void findByIdShouldReturnNotFoundWhenSharedLoadFailedWithNonExistingId() throws Exception {
+        Mockito.when(coalescingPersonService.findById(nonExistingId, EnumSet.noneOf(PersonExpansion.class)))
+                .thenThrow(new CompletionException(new ResourceNotFoundException("ID não encontrado !")));
+
+        mockMvc.perform(get("/api/v1/person/{id}", nonExistingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void findByIdShouldReturnOkWhenIfNoneMatchIsForAnotherRepresentation() throws Exception {
+        personDto.setVersion(3L);
+        Mockito.when(personService.findVersion(existingId)).thenReturn(3L);
+        Mockito.when(coalescingPersonService.findById(existingId, EnumSet.allOf(PersonExpansion.class))).thenReturn(personDto);
+
+        mockMvc.perform(get("/api/v1/person/{id}?expand=addresses,phones", existingId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-summary\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""));
+    }
+
+    @Test
+    public void findByIdShouldReturnETagWhenIfNoneMatchIsStale() throws Exception {
+        personDto.setVersion(4L);
+        Mockito.when(personService.findVersion(existingId)).thenReturn(4L);
+        Mockito.when(coalescingPersonService.findById(existingId, EnumSet.noneOf(PersonExpansion.class))).thenReturn(personDto);
+
+        mockMvc.perform(get("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3-summary\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4-summary\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void updateShouldPassIfMatchVersionToServiceWhenGivenIfMatch() throws Exception {
+        PersonDTO versionedPersonDto = PersonDTOFactory.createPersonDTO();
+        versionedPersonDto.setVersion(2L);
+        Mockito.when(personService.update(versionedPersonDto, existingId)).thenReturn(versionedPersonDto);
+
+        mockMvc.perform(put("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void updateShouldPassIfMatchVersionToServiceWhenGivenWeakSummaryTag() throws Exception {
+        PersonDTO versionedPersonDto = PersonDTOFactory.createPersonDTO();
+        versionedPersonDto.setVersion(2L);
+        Mockito.when(personService.update(versionedPersonDto, existingId)).thenReturn(versionedPersonDto);
+
+        mockMvc.perform(put("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2-summary\"")
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""));
+    }
+
+    @Test
+    public void updateShouldReturnPreconditionFailedWhenIfMatchIsMalformed() throws Exception {
+        mockMvc.perform(put("/api/v1/person/{id}", existingId)
+                        .header(HttpHeaders.IF_MATCH, "\"v2\"")
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void insertAsyncShouldReturnAcceptedWithTicketWhenQueueHasRoom() throws Exception {
+        Mockito.when(personWriteBehindService.submitInsert(personDto))
+                .thenReturn(WriteStatusDTO.builder().ticket("ticket").status(WriteStatus.PENDING).build());
+
+        mockMvc.perform(post("/api/v1/person/async")
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/v1/person/async/ticket"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    public void updateAsyncShouldReturnTooManyRequestsWhenQueueIsFull() throws Exception {
+        Mockito.when(personWriteBehindService.submitUpdate(existingId, personDto))
+                .thenThrow(new TooManyRequestsException("Fila de escrita cheia !"));
+
+        mockMvc.perform(put("/api/v1/person/{id}/async", existingId)
+                        .content(jsonBodyPersonDto)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void findWriteStatusShouldReturnStatusWhenKnownTicket() throws Exception {
+        Mockito.when(personWriteBehindService.findStatus("ticket"))
+                .thenReturn(WriteStatusDTO.builder().ticket("ticket").id(existingId).status(WriteStatus.COMPLETED).build());
+
+        mockMvc.perform(get("/api/v1/person/async/{ticket}", "ticket")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(existingId))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
 }
@@ -0,0 +1,113 @@
+package one.digitalinnovation.personapi.controller;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.service.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactivePersonControllerIT {
+
+    private Long nonExistingId;
+    private List<Long> insertedIds;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonService personService;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        nonExistingId = 1000000L;
+        insertedIds = new ArrayList<>();
+        PersonDTO personDTO = PersonDTOFactory.createPersonDTO();
+        insertedIds.add(personService.insert(personDTO).getId());
+        personDTO.setCpf("82737002320");
+        personDTO.setFirstName("A-secondName");
+        insertedIds.add(personService.insert(personDTO).getId());
+    }
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(insertedIds);
+    }
+
+    @Test
+    public void findByIdShouldReturnPersonDtoWithChildrenWhenExistingId() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v2/person/{id}", insertedIds.get(0))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpf").value("44453213387"))
+                .andExpect(jsonPath("$.addresses[0].street").value("Rua"))
+                .andExpect(jsonPath("$.phones[0].type").value("HOME"));
+    }
+
+    @Test
+    public void findByIdShouldReturnNotFoundWhenNonExistingId() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v2/person/{id}", nonExistingId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void findAllShouldReturnPageOrderedByIdWhenGivenPageable() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v2/person?page=0&size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(insertedIds.get(0)))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    public void findAllShouldReturnBadRequestWhenSortedByOtherField() throws Exception {
+        mockMvc.perform(get("/api/v2/person?sort=firstName")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamShouldEmitOneJsonLinePerPersonWhenPersonsExist() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v2/person/stream")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals(2, body.lines().count());
+        Assertions.assertTrue(body.lines().allMatch(line -> line.contains("\"addresses\":[{")));
+    }
+
+}
@@ -0,0 +1,288 @@
+package one.digitalinnovation.personapi.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.WriteStatusDTO;
+import one.digitalinnovation.personapi.enums.WriteStatus;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.service.PersonService;
+import one.digitalinnovation.personapi.util.ValidCpfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.cache.type=none")
+@AutoConfigureMockMvc
+@ActiveProfiles("sharded")
+public class ShardedPersonControllerIT {
+
+    private static final String STATE = "SC";
+
+    private List<PersonDTO> inserted;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        inserted = new ArrayList<>();
+        Set<Integer> coveredShards = new HashSet<>();
+        for (int seed = 2000; inserted.size() < 8 || coveredShards.size() < shardRouter.getShardCount(); seed++) {
+            PersonDTO personDTO = person(seed);
+            inserted.add(read(mockMvc.perform(post("/api/v1/person")
+                            .content(objectMapper.writeValueAsString(personDTO))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andReturn(), PersonDTO.class));
+            coveredShards.add(shardRouter.shardOf(personDTO.getCpf()));
+        }
+    }
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(inserted.stream().map(PersonDTO::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void insertShouldBeReadableByIdAndCpfFromEveryShard() throws Exception {
+        for (PersonDTO personDTO : inserted) {
+            mockMvc.perform(get("/api/v1/person/{id}", personDTO.getId()).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.cpf").value(personDTO.getCpf()));
+            mockMvc.perform(get("/api/v1/person/cpf/{cpf}", personDTO.getCpf()).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(personDTO.getId()));
+        }
+    }
+
+    @Test
+    public void updateAndPatchShouldWriteToOwningShard() throws Exception {
+        PersonDTO personDTO = inserted.get(0);
+        personDTO.setFirstName("Updated");
+        mockMvc.perform(put("/api/v1/person/{id}", personDTO.getId())
+                        .content(objectMapper.writeValueAsString(personDTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/person/{id}", personDTO.getId())
+                        .content("{\"lastName\":\"Patched\"}")
+                        .contentType("application/merge-patch+json"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/person/{id}", personDTO.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.firstName").value("Updated"))
+                .andExpect(jsonPath("$.lastName").value("Patched"));
+    }
+
+    @Test
+    public void patchShouldReturnBadRequestWhenCpfBelongsToAnotherShard() throws Exception {
+        PersonDTO personDTO = inserted.get(0);
+        PersonDTO other = inserted.stream()
+                .filter(candidate -> shardRouter.shardOf(candidate.getCpf()) != shardRouter.shardOf(personDTO.getCpf()))
+                .findFirst().get();
+
+        mockMvc.perform(patch("/api/v1/person/{id}", personDTO.getId())
+                        .content("{\"cpf\":\"" + other.getCpf() + "\"}")
+                        .contentType("application/merge-patch+json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void insertAllShouldStoreEveryPersonOnItsShard() throws Exception {
+        List<PersonDTO> batch = List.of(person(3000), person(3001), person(3002), person(3003));
+
+        List<PersonBatchResultDTO> results = read(mockMvc.perform(post("/api/v1/person/batch")
+                        .content(objectMapper.writeValueAsString(batch))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn(), new TypeReference<>() {});
+        results.forEach(result -> inserted.add(PersonDTO.builder().id(result.getId()).build()));
+
+        for (int i = 0; i < batch.size(); i++) {
+            Assertions.assertEquals(i, results.get(i).getIndex());
+            Assertions.assertEquals(shardRouter.shardOf(batch.get(i).getCpf()), shardRouter.shardOf(results.get(i).getId()));
+            mockMvc.perform(get("/api/v1/person/cpf/{cpf}", batch.get(i).getCpf()).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(results.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void deleteAllShouldDeleteFromEveryShard() throws Exception {
+        String ids = inserted.stream().map(personDTO -> personDTO.getId().toString()).collect(Collectors.joining(","));
+
+        mockMvc.perform(delete("/api/v1/person").param("ids", ids))
+                .andExpect(status().isNoContent());
+
+        for (PersonDTO personDTO : inserted) {
+            mockMvc.perform(get("/api/v1/person/{id}", personDTO.getId()).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNotFound());
+        }
+        inserted.clear();
+    }
+
+    @Test
+    public void findAllShouldPageAcrossEveryShard() throws Exception {
+        JsonNode page = read(mockMvc.perform(get("/api/v1/person")
+                        .param("state", STATE)
+                        .param("sort", "id")
+                        .param("size", "100")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn(), JsonNode.class);
+
+        Assertions.assertEquals(inserted.size(), page.get("totalElements").asInt());
+        List<Long> ids = new ArrayList<>();
+        page.get("content").forEach(person -> ids.add(person.get("id").asLong()));
+        Assertions.assertEquals(inserted.stream().map(PersonDTO::getId).sorted().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void exportShouldStreamPersonsFromEveryShard() throws Exception {
+        String body = asyncBody(get("/api/v1/person/export"));
+
+        Set<Long> exported = body.lines().map(line -> readUnchecked(line, PersonDTO.class).getId()).collect(Collectors.toSet());
+        Assertions.assertTrue(exported.containsAll(inserted.stream().map(PersonDTO::getId).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void importShouldStorePersonsOnTheirShards() throws Exception {
+        List<String> cpfs = List.of(ValidCpfs.of(4000), ValidCpfs.of(4001), ValidCpfs.of(4002), ValidCpfs.of(4003));
+        String csv = "firstName,lastName,cpf\n" + cpfs.stream().map(cpf -> "Imported,Sharded," + cpf).collect(Collectors.joining("\n"));
+
+        mockMvc.perform(post("/api/v1/person/import").content(csv).contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acceptedCount").value(cpfs.size()));
+
+        for (String cpf : cpfs) {
+            PersonDTO imported = read(mockMvc.perform(get("/api/v1/person/cpf/{cpf}", cpf).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn(), PersonDTO.class);
+            inserted.add(imported);
+            Assertions.assertEquals(shardRouter.shardOf(cpf), shardRouter.shardOf(imported.getId()));
+        }
+    }
+
+    @Test
+    public void writeBehindShouldInsertAndUpdateOnOwningShard() throws Exception {
+        PersonDTO personDTO = person(5000);
+        WriteStatusDTO insert = awaitCompleted(read(mockMvc.perform(post("/api/v1/person/async")
+                        .content(objectMapper.writeValueAsString(personDTO))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andReturn(), WriteStatusDTO.class));
+        inserted.add(PersonDTO.builder().id(insert.getId()).build());
+        Assertions.assertEquals(shardRouter.shardOf(personDTO.getCpf()), shardRouter.shardOf(insert.getId()));
+
+        PersonDTO existing = inserted.get(0);
+        existing.setFirstName("Behind");
+        awaitCompleted(read(mockMvc.perform(put("/api/v1/person/{id}/async", existing.getId())
+                        .content(objectMapper.writeValueAsString(existing))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andReturn(), WriteStatusDTO.class));
+
+        mockMvc.perform(get("/api/v1/person/{id}", existing.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.firstName").value("Behind"));
+    }
+
+    @Test
+    public void reactiveReadsShouldReachEveryShard() throws Exception {
+        for (PersonDTO personDTO : inserted) {
+            Assertions.assertEquals(personDTO.getCpf(),
+                    readUnchecked(asyncBody(get("/api/v2/person/{id}", personDTO.getId())), PersonDTO.class).getCpf());
+        }
+
+        Set<Long> streamed = asyncBody(get("/api/v2/person/stream").accept("application/x-ndjson")).lines()
+                .map(line -> readUnchecked(line, PersonDTO.class).getId())
+                .collect(Collectors.toSet());
+        Assertions.assertTrue(streamed.containsAll(inserted.stream().map(PersonDTO::getId).collect(Collectors.toList())));
+    }
+
+    private WriteStatusDTO awaitCompleted(WriteStatusDTO writeStatus) throws Exception {
+        for (int attempt = 0; attempt < 100 && writeStatus.getStatus() == WriteStatus.PENDING; attempt++) {
+            Thread.sleep(50);
+            writeStatus = read(mockMvc.perform(get("/api/v1/person/async/{ticket}", writeStatus.getTicket()))
+                    .andExpect(status().isOk())
+                    .andReturn(), WriteStatusDTO.class);
+        }
+        Assertions.assertEquals(WriteStatus.COMPLETED, writeStatus.getStatus(), writeStatus.getMessage());
+        return writeStatus;
+    }
+
+    private String asyncBody(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static PersonDTO person(int seed){
+        PersonDTO personDTO = PersonDTOFactory.createPersonDTO();
+        personDTO.setId(null);
+        personDTO.setCpf(ValidCpfs.of(seed));
+        personDTO.getAddresses().forEach(address -> {
+            address.setId(null);
+            address.setState(STATE);
+        });
+        personDTO.getPhones().forEach(phone -> phone.setId(null));
+        return personDTO;
+    }
+
+    private <T> T read(MvcResult result, Class<T> type) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), type);
+    }
+
+    private <T> T read(MvcResult result, TypeReference<T> type) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), type);
+    }
+
+    private <T> T readUnchecked(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
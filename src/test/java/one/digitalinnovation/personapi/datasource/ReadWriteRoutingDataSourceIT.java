@@ -0,0 +1,149 @@
+package one.digitalinnovation.personapi.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.service.PersonService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "personapi.datasource.replica-urls=" + ReadWriteRoutingDataSourceIT.REPLICA_URL,
+        "personapi.datasource.replica-lag=1m",
+        "spring.cache.type=none"})
+@AutoConfigureMockMvc
+public class ReadWriteRoutingDataSourceIT {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:testdb;IFEXISTS=TRUE";
+    private static final String REPLICA = ReadWriteRoutingDataSource.REPLICA + 0;
+
+    private final List<Long> insertedIds = new ArrayList<>();
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(insertedIds);
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUseReplicaWhenSessionHasNotWritten(){
+        Assertions.assertEquals(REPLICA, onNewSession(() -> servingDataSource(true)));
+    }
+
+    @Test
+    public void readWriteTransactionShouldUsePrimary(){
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, onNewSession(() -> servingDataSource(false)));
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUsePrimaryWhenSessionWroteWithinReplicaLag(){
+        String servingDataSource = onNewSession(() -> {
+            replicaLagGuard.begin(null, written -> {});
+            insertedIds.add(personService.insert(PersonDTOFactory.createPersonDTO()).getId());
+            return servingDataSource(true);
+        });
+
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, servingDataSource);
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUsePrimaryWhenClientSendsBackItsLastWrite() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/person")
+                .content(objectMapper.writeValueAsString(PersonDTOFactory.createPersonDTO()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReplicaLagGuard.LAST_WRITE_COOKIE))
+                .andReturn();
+        insertedIds.add(objectMapper.readValue(result.getResponse().getContentAsString(), PersonDTO.class).getId());
+        Instant lastWrite = Instant.ofEpochMilli(Long.parseLong(result.getResponse().getCookie(ReplicaLagGuard.LAST_WRITE_COOKIE).getValue()));
+
+        String servingDataSource = onNewSession(() -> {
+            replicaLagGuard.begin(lastWrite, written -> {});
+            return servingDataSource(true);
+        });
+
+        Assertions.assertEquals(ReadWriteRoutingDataSource.PRIMARY, servingDataSource);
+    }
+
+    @Test
+    public void findByIdShouldReadFromReplicaWhenAnotherSessionWrote(){
+        PersonDTO personDTO = onNewSession(() -> personService.insert(PersonDTOFactory.createPersonDTO()));
+        insertedIds.add(personDTO.getId());
+
+        PersonDTO found = onNewSession(() -> personService.findById(personDTO.getId()));
+
+        Assertions.assertEquals(personDTO.getCpf(), found.getCpf());
+    }
+
+    private String servingDataSource(boolean readOnly){
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            HikariDataSource replica = (HikariDataSource) routingDataSource.getResolvedDataSources().get(REPLICA);
+            return replica.isRunning() && replica.getHikariPoolMXBean().getActiveConnections() > 0 ? REPLICA : ReadWriteRoutingDataSource.PRIMARY;
+        });
+    }
+
+    private <T> T onNewSession(Supplier<T> call){
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return call.get();
+                }
+                finally {
+                    replicaLagGuard.end();
+                }
+            }).get();
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package one.digitalinnovation.personapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ReplicaLagGuardTests {
+
+    private Instant now;
+    private ReplicaLagGuard replicaLagGuard;
+
+    @BeforeEach
+    void setUp(){
+        now = Instant.parse("2021-11-01T10:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        replicaLagGuard = new ReplicaLagGuard(Duration.ofSeconds(2), clock);
+    }
+
+    @AfterEach
+    void tearDown(){
+        replicaLagGuard.end();
+    }
+
+    @Test
+    public void isPinnedToPrimaryShouldReturnFalseWhenNothingWasWritten(){
+        replicaLagGuard.begin(null, written -> {});
+
+        Assertions.assertFalse(replicaLagGuard.isPinnedToPrimary());
+    }
+
+    @Test
+    public void isPinnedToPrimaryShouldReturnTrueWhenWriteIsWithinReplicaLag(){
+        replicaLagGuard.begin(null, written -> {});
+        replicaLagGuard.markWrite();
+        now = now.plusMillis(1999);
+
+        Assertions.assertTrue(replicaLagGuard.isPinnedToPrimary());
+    }
+
+    @Test
+    public void isPinnedToPrimaryShouldReturnFalseWhenReplicaLagElapsed(){
+        replicaLagGuard.begin(null, written -> {});
+        replicaLagGuard.markWrite();
+        now = now.plusSeconds(2);
+
+        Assertions.assertFalse(replicaLagGuard.isPinnedToPrimary());
+    }
+
+    @Test
+    public void isPinnedToPrimaryShouldReturnTrueWhenClientWroteThroughAnotherThread(){
+        List<Instant> written = new ArrayList<>();
+        CompletableFuture.runAsync(() -> {
+            replicaLagGuard.begin(null, written::add);
+            replicaLagGuard.markWrite();
+            replicaLagGuard.end();
+        }).join();
+
+        replicaLagGuard.begin(written.get(0), instant -> {});
+
+        Assertions.assertTrue(replicaLagGuard.isPinnedToPrimary());
+    }
+
+    @Test
+    public void isPinnedToPrimaryShouldReturnFalseWhenClientMarkerIsBeyondReplicaLag(){
+        replicaLagGuard.begin(now.plusSeconds(60), written -> {});
+
+        Assertions.assertFalse(replicaLagGuard.isPinnedToPrimary());
+    }
+
+    @Test
+    public void markWriteShouldNotPinWhenNoClientSessionIsOpen(){
+        replicaLagGuard.markWrite();
+        replicaLagGuard.begin(null, written -> {});
+
+        Assertions.assertFalse(replicaLagGuard.isPinnedToPrimary());
+    }
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.personapi.datasource;
+
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ShardRouterTests {
+
+    private final ShardRouter shardRouter = new ShardRouter(4);
+
+    @Test
+    public void shardOfShouldIgnoreFormattingWhenCpfIsMasked(){
+        Assertions.assertEquals(shardRouter.shardOf("44453213387"), shardRouter.shardOf("444.532.133-87"));
+    }
+
+    @Test
+    public void shardOfShouldThrowInvalidParameterExceptionWhenCpfHasNoDigits(){
+        Assertions.assertThrows(InvalidParameterException.class, () -> shardRouter.shardOf(""));
+    }
+
+    @Test
+    public void shardOfShouldReturnShardEncodedInLowBitsWhenIdIsGenerated(){
+        Assertions.assertEquals(3, shardRouter.shardOf(51L * ShardRouter.MAX_SHARDS + 3));
+        Assertions.assertFalse(shardRouter.isValidShard(shardRouter.shardOf(51L * ShardRouter.MAX_SHARDS + 5)));
+    }
+
+    @Test
+    public void constructorShouldThrowIllegalArgumentExceptionWhenShardCountExceedsMaximum(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardRouter(ShardRouter.MAX_SHARDS + 1));
+    }
+}
@@ -1,17 +1,32 @@
 package one.digitalinnovation.personapi.repository;
 
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.PhoneType;
 import one.digitalinnovation.personapi.factory.PersonFactory;
 import one.digitalinnovation.personapi.mapper.PersonMapper;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @DataJpaTest
@@ -26,6 +41,12 @@ public class PersonRepositoryTests {
     @Autowired
     PersonRepository personRepository;
 
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Autowired
+    DataSource dataSource;
+
     @BeforeEach
     void setUp() throws Exception{
         nonExistingId = 10000L;
@@ -56,6 +77,32 @@ public class PersonRepositoryTests {
         Assertions.assertTrue(personOpt.isPresent());
     }
 
+    @Test
+    public void findWithAddressesAndPhonesByIdInShouldInitializeCollectionsWhenExistingIds(){
+        testEntityManager.flush();
+        testEntityManager.clear();
+        List<Person> persons = personRepository.findWithAddressesByIdIn(List.of(existingId));
+        personRepository.findWithPhonesByIdIn(List.of(existingId));
+        Assertions.assertEquals(1, persons.size());
+        Assertions.assertTrue(Hibernate.isInitialized(persons.get(0).getAddresses()));
+        Assertions.assertTrue(Hibernate.isInitialized(persons.get(0).getPhones()));
+    }
+
+    @Test
+    public void findByCpfShouldFindWhenExistingCpfFormattedOrRaw(){
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Assertions.assertEquals(existingId, personRepository.findByCpf("44453213387").get().getId());
+        Assertions.assertEquals(existingId, personRepository.findByCpf("444.532.133-87").get().getId());
+        Assertions.assertEquals("44453213387", personRepository.findByCpf("444.532.133-87").get().getCpf());
+    }
+
+    @Test
+    public void findByCpfShouldReturnOptionalEmptyWhenNonExistingCpf(){
+        Assertions.assertTrue(personRepository.findByCpf("82737002320").isEmpty());
+        Assertions.assertTrue(personRepository.findByCpf("not-a-cpf").isEmpty());
+    }
+
     @Test
     public void saveShouldThrowInvalidDataAccessApiUsageExceptionWhenNullEntity(){
         Assertions.assertThrows(InvalidDataAccessApiUsageException.class, () -> {
@@ -66,7 +113,7 @@ public class PersonRepositoryTests {
     @Test
     public void saveShouldThrowDataIntegrityViolationExceptionWhenNoValidEntity(){
         Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
-            personRepository.save(notValidPerson);
+            personRepository.saveAndFlush(notValidPerson);
         });
     }
 
@@ -90,4 +137,69 @@ public class PersonRepositoryTests {
         });
     }
 
+    @Test
+    public void findPageIdsShouldReturnMatchingPersonsWhenFilteredByAddressAndPhone(){
+        PersonFilterDTO matching = PersonFilterDTO.builder().city("city").state("state").phoneType(PhoneType.HOME).build();
+        PersonFilterDTO otherCity = PersonFilterDTO.builder().city("other").state("state").build();
+
+        Assertions.assertEquals(List.of(existingId),
+                personRepository.findPageIds(PersonSpecifications.matching(matching), PageRequest.of(0, 10)).getContent());
+        Assertions.assertTrue(personRepository.findPageIds(PersonSpecifications.matching(otherCity), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void findPageIdsShouldUseCityIndexWhenFilteredByCity() throws SQLException {
+        assertUsesIndex(PersonFilterDTO.builder().city("city").build(), "IDX_ADDRESS_CITY");
+    }
+
+    @Test
+    public void findPageIdsShouldUseStateIndexWhenFilteredByState() throws SQLException {
+        assertUsesIndex(PersonFilterDTO.builder().state("state").build(), "IDX_ADDRESS_STATE");
+    }
+
+    @Test
+    public void findPageIdsShouldUseZipCodeIndexWhenFilteredByZipCode() throws SQLException {
+        assertUsesIndex(PersonFilterDTO.builder().zipCode("1111111").build(), "IDX_ADDRESS_ZIP_CODE");
+    }
+
+    @Test
+    public void findPageIdsShouldUseBirthDateIndexWhenFilteredByBirthDateRange() throws SQLException {
+        assertUsesIndex(PersonFilterDTO.builder().birthDateFrom(LocalDate.of(1990, 1, 1)).birthDateTo(LocalDate.of(2000, 1, 1)).build(),
+                "IDX_PERSON_BIRTH_DATE_ID");
+    }
+
+    @Test
+    public void findPageIdsShouldUsePhoneTypeIndexWhenFilteredByPhoneType() throws SQLException {
+        assertUsesIndex(PersonFilterDTO.builder().phoneType(PhoneType.HOME).build(), "IDX_PHONE_TYPE");
+    }
+
+    private void assertUsesIndex(PersonFilterDTO filter, String index) throws SQLException {
+        // SET commits the connection's transaction, so statistics are toggled and read outside the test transaction.
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET QUERY_STATISTICS FALSE");
+            statement.execute("SET QUERY_STATISTICS TRUE");
+        }
+        personRepository.findPageIds(PersonSpecifications.matching(filter), PageRequest.of(0, 10));
+        String plan;
+        try (Connection connection = dataSource.getConnection()) {
+            String sql;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS"
+                         + " WHERE SQL_STATEMENT LIKE 'select person0_.id %'")) {
+                Assertions.assertTrue(resultSet.next());
+                sql = resultSet.getString(1);
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                    explain.setNull(i, Types.NULL);
+                }
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    resultSet.next();
+                    plan = resultSet.getString(1);
+                }
+            }
+        }
+        Assertions.assertTrue(plan.contains("/* PUBLIC." + index + ":"), plan);
+    }
+
 }
@@ -0,0 +1,82 @@
+package one.digitalinnovation.personapi.search;
+
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PersonSearchIndexTests {
+
+    private PersonSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PersonSearchIndex();
+        index.put(1L, "João", "Conceição");
+        index.put(2L, "Joana", "Silva");
+        index.put(3L, "Maria", "João da Silva");
+        index.put(4L, "Antônio", "Araújo");
+    }
+
+    @Test
+    public void searchShouldIgnoreAccentsAndCaseWhenQueryIsFolded() {
+        Assertions.assertEquals(List.of(1L), ids(index.search("CONCEICAO", 10)));
+        Assertions.assertEquals(List.of(4L), ids(index.search("antonio araujo", 10)));
+    }
+
+    @Test
+    public void searchShouldRankExactAndEarlierTokenMatchesFirstWhenScoresDiffer() {
+        Assertions.assertEquals(List.of(2L, 1L, 3L), ids(index.search("joa", 10)));
+        Assertions.assertEquals(List.of(1L, 3L), ids(index.search("joão", 10)));
+    }
+
+    @Test
+    public void searchShouldRequireEveryTermWhenQueryHasSeveralTerms() {
+        Assertions.assertEquals(List.of(3L), ids(index.search("maria silva", 10)));
+    }
+
+    @Test
+    public void searchShouldTolerateTyposWhenNoPrefixMatchFillsThePage() {
+        Assertions.assertEquals(List.of(2L, 3L), ids(index.search("silvq", 10)));
+        Assertions.assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void searchShouldHonourLimitWhenMoreMatchesExist() {
+        Assertions.assertEquals(2, index.search("j", 2).size());
+    }
+
+    @Test
+    public void putShouldReplaceTokensWhenPersonIsRenamed() {
+        index.put(1L, "Pedro", "Conceição");
+
+        Assertions.assertFalse(ids(index.search("joao", 10)).contains(1L));
+        Assertions.assertEquals(List.of(1L), ids(index.search("pedro", 10)));
+        Assertions.assertEquals(4, index.size());
+    }
+
+    @Test
+    public void removeShouldDropPersonFromResultsWhenPersonIsDeleted() {
+        index.remove(3L);
+
+        Assertions.assertEquals(List.of(2L), ids(index.search("silva", 10)));
+        Assertions.assertEquals(3, index.size());
+    }
+
+    @Test
+    public void searchShouldNotTolerateTyposAgainstTokensOfRemovedPersons() {
+        index.remove(2L);
+        index.remove(3L);
+
+        Assertions.assertTrue(index.search("silvq", 10).isEmpty());
+        index.put(5L, "Ana", "Silva");
+        Assertions.assertEquals(List.of(5L), ids(index.search("silvq", 10)));
+    }
+
+    private List<Long> ids(List<PersonSearchResultDTO> results) {
+        return results.stream().map(PersonSearchResultDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,126 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.dto.ImportJobDTO;
+import one.digitalinnovation.personapi.enums.ImportFormat;
+import one.digitalinnovation.personapi.enums.ImportStatus;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+@SpringBootTest
+@Transactional
+public class PersonImportServiceIT {
+
+    private String jobId;
+    private String csv;
+    private String ndjson;
+
+    @Autowired
+    PersonImportService personImportService;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        jobId = UUID.randomUUID().toString();
+        ReflectionTestUtils.setField(personImportService, "chunkSize", 2);
+        csv = "firstName,lastName,cpf,birthDate\n"
+                + "Ana,Silva,44453213387,1990-01-31\n"
+                + "Bruno,Souza,,\n"
+                + "Carla,Lima,82737002320,\n";
+        ndjson = "{\"firstName\":\"Ana\",\"lastName\":\"Silva\",\"cpf\":\"44453213387\"}\n"
+                + "{\"firstName\":\"Bruno\",\"lastName\":\"Souza\",\"cpf\":\"82737002320\"}\n"
+                + "{\"firstName\":\"Carla\",\"lastName\":\"Lima\",\"cpf\":\"71428793860\"}\n";
+    }
+
+    @Test
+    public void importPersonsShouldCommitValidLinesAndWriteRejectsWhenCsvHasInvalidCPF() throws Exception {
+        ImportJobDTO job = personImportService.importPersons(jobId, ImportFormat.CSV, stream(csv));
+
+        Assertions.assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        Assertions.assertEquals(3L, job.getCommittedLines());
+        Assertions.assertEquals(2L, job.getAcceptedCount());
+        Assertions.assertEquals(1L, job.getRejectedCount());
+        Assertions.assertEquals(2L, personRepository.count());
+        Assertions.assertTrue(Files.readString(Paths.get(job.getRejectsFile())).contains("\"line\":2"));
+    }
+
+    @Test
+    public void importPersonsShouldResumeFromLastCommittedChunkWhenRestartedAfterFailure(){
+        InputStream interrupted = new SequenceInputStream(stream(ndjson.substring(0, ndjson.lastIndexOf('{'))), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        Assertions.assertThrows(UncheckedIOException.class, () -> {
+            personImportService.importPersons(jobId, ImportFormat.NDJSON, interrupted);
+        });
+        Assertions.assertEquals(ImportStatus.FAILED, personImportService.findJob(jobId).getStatus());
+        Assertions.assertEquals(2L, personImportService.findJob(jobId).getCommittedLines());
+
+        ImportJobDTO job = personImportService.importPersons(jobId, ImportFormat.NDJSON, stream(ndjson));
+
+        Assertions.assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        Assertions.assertEquals(3L, job.getAcceptedCount());
+        Assertions.assertEquals(0L, job.getRejectedCount());
+        Assertions.assertEquals(3L, personRepository.count());
+    }
+
+    @Test
+    public void importPersonsShouldKeepQuotedCommasWhenCsvFieldIsQuoted(){
+        String quoted = "firstName,lastName,cpf,birthDate\n"
+                + "Ana,\"Silva, Jr.\",44453213387,1990-01-31\n";
+
+        ImportJobDTO job = personImportService.importPersons(jobId, ImportFormat.CSV, stream(quoted));
+
+        Assertions.assertEquals(1L, job.getAcceptedCount());
+        Assertions.assertEquals("Silva, Jr.", personRepository.findAll().get(0).getLastName());
+    }
+
+    @Test
+    public void importPersonsShouldNotDuplicateRejectsWhenResumedAfterFailure() throws Exception {
+        InputStream interrupted = new SequenceInputStream(stream(csv.substring(0, csv.lastIndexOf("Carla"))), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+        Assertions.assertThrows(UncheckedIOException.class, () -> {
+            personImportService.importPersons(jobId, ImportFormat.CSV, interrupted);
+        });
+
+        ImportJobDTO job = personImportService.importPersons(jobId, ImportFormat.CSV, stream(csv));
+
+        Assertions.assertEquals(1L, job.getRejectedCount());
+        Assertions.assertEquals(1L, Files.readAllLines(Paths.get(job.getRejectsFile())).size());
+    }
+
+    @Test
+    public void findJobShouldThrowResourceNotFoundExceptionWhenNonExistingJob(){
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personImportService.findJob(jobId);
+        });
+    }
+
+    private InputStream stream(String content){
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonSearchResultDTO;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class PersonSearchServiceIT {
+
+    private List<Long> insertedIds;
+    private PersonDTO personDTO;
+
+    @Autowired
+    private PersonSearchService personSearchService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        insertedIds = new ArrayList<>();
+        personDTO = PersonDTOFactory.createPersonDTO();
+        personDTO.setFirstName("Íris");
+        personDTO.setLastName("Quaresma");
+        personDTO = personService.insert(personDTO);
+        insertedIds.add(personDTO.getId());
+    }
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(insertedIds);
+    }
+
+    @Test
+    public void searchShouldFindPersonWhenInsertIsCommitted(){
+        Assertions.assertEquals(List.of(personDTO.getId()), ids(personSearchService.search("iris quar", 10)));
+    }
+
+    @Test
+    public void searchShouldFindNewNameWhenUpdateIsCommitted(){
+        personDTO.setLastName("Guimarães");
+        personService.update(personDTO, personDTO.getId());
+
+        Assertions.assertTrue(personSearchService.search("quaresma", 10).isEmpty());
+        Assertions.assertEquals(List.of(personDTO.getId()), ids(personSearchService.search("Íris GUIMARAES", 10)));
+    }
+
+    @Test
+    public void searchShouldNotFindPersonWhenDeleteIsCommitted(){
+        personService.deleteById(personDTO.getId());
+
+        Assertions.assertTrue(personSearchService.search("quaresma", 10).isEmpty());
+    }
+
+    @Test
+    public void searchShouldFindBatchInsertedPersonsWhenChunkIsCommitted(){
+        PersonDTO other = PersonDTOFactory.createPersonDTO();
+        other.setCpf("82737002320");
+        other.setFirstName("Ígor");
+        other.setLastName("Quaresma");
+        insertedIds.add(personService.insertAll(List.of(other)).get(0).getId());
+
+        Assertions.assertEquals(List.of(insertedIds.get(1), insertedIds.get(0)), ids(personSearchService.search("quaresma", 10)));
+    }
+
+    @Test
+    public void rebuildShouldIndexEveryPersonWhenScanningTheTable(){
+        personSearchService.rebuild();
+
+        Assertions.assertEquals(personRepository.count(), personSearchService.size());
+        Assertions.assertEquals(List.of(personDTO.getId()), ids(personSearchService.search("quaresma", 10)));
+    }
+
+    @Test
+    public void searchShouldThrowInvalidParameterExceptionWhenQueryIsBlank(){
+        Assertions.assertThrows(InvalidParameterException.class, () -> personSearchService.search(" ", 10));
+    }
+
+    private List<Long> ids(List<PersonSearchResultDTO> results) {
+        return results.stream().map(PersonSearchResultDTO::getId).collect(Collectors.toList());
+    }
+}
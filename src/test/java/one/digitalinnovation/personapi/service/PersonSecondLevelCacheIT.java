@@ -0,0 +1,84 @@
+package one.digitalinnovation.personapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.personapi.config.CacheConfig;
+import one.digitalinnovation.personapi.config.SecondLevelCacheConfig;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static one.digitalinnovation.personapi.util.StatementCountAssertions.assertMaxStatements;
+
+@SpringBootTest
+@ActiveProfiles("l2cache")
+public class PersonSecondLevelCacheIT {
+
+    private PersonDTO personDTO;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        personDTO = personService.insert(PersonDTOFactory.createPersonDTO());
+    }
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(List.of(personDTO.getId()));
+    }
+
+    @Test
+    public void findByIdShouldReadChildrenFromSecondLevelCacheWhenRepeated(){
+        findByIdBypassingPersonsCache();
+
+        PersonDTO found = assertMaxStatements(1, this::findByIdBypassingPersonsCache);
+
+        Assertions.assertEquals(personDTO.getAddresses(), found.getAddresses());
+        Assertions.assertEquals(personDTO.getPhones(), found.getPhones());
+    }
+
+    @Test
+    public void findByIdShouldReturnUpdatedChildrenWhenCachedCollectionChanged(){
+        findByIdBypassingPersonsCache();
+        personDTO.getAddresses().forEach(address -> address.setCity("Campinas"));
+        personDTO.getPhones().clear();
+
+        personService.update(personDTO, personDTO.getId());
+
+        PersonDTO found = findByIdBypassingPersonsCache();
+        Assertions.assertEquals("Campinas", found.getAddresses().iterator().next().getCity());
+        Assertions.assertTrue(found.getPhones().isEmpty());
+    }
+
+    @Test
+    public void hitRatioShouldBePublishedPerRegionWhenCacheIsRead(){
+        findByIdBypassingPersonsCache();
+        findByIdBypassingPersonsCache();
+
+        Gauge gauge = meterRegistry.find(SecondLevelCacheConfig.HIT_RATIO_METRIC).tag("region", "person.addresses").gauge();
+        Assertions.assertNotNull(gauge);
+        Assertions.assertTrue(gauge.value() > 0);
+    }
+
+    private PersonDTO findByIdBypassingPersonsCache(){
+        cacheManager.getCache(CacheConfig.PERSONS).clear();
+        return personService.findById(personDTO.getId());
+    }
+}
@@ -1,20 +1,46 @@
 package one.digitalinnovation.personapi.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.personapi.config.CacheConfig;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.enums.PersonExpansion;
+import one.digitalinnovation.personapi.enums.PhoneType;
 import one.digitalinnovation.personapi.exception.ConstraintViolationException;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.PreconditionFailedException;
 import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
 import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.repository.AddressRepository;
 import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.repository.PhoneRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
+import static one.digitalinnovation.personapi.util.StatementCountAssertions.assertMaxStatements;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
 @SpringBootTest
 @Transactional
 public class PersonServiceIT {
@@ -32,6 +58,24 @@ public class PersonServiceIT {
     @Autowired
     PersonRepository personRepository;
 
+    @Autowired
+    AddressRepository addressRepository;
+
+    @Autowired
+    PhoneRepository phoneRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
     @BeforeEach
     void setUp() throws Exception{
         nonExistingId = 1000000L;
@@ -48,6 +92,14 @@ public class PersonServiceIT {
         Assertions.assertEquals(++persorRepositoryCount,personRepository.count());
     }
 
+    @Test
+    public void insertShouldReturnAndCacheNormalizedCpfWhenFormattedCpf(){
+        personDto.setCpf("444.532.133-87");
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        Assertions.assertEquals("44453213387", savedPersonDto.getCpf());
+        Assertions.assertEquals("44453213387", personService.findById(savedPersonDto.getId()).getCpf());
+    }
+
     @Test
     public void insertShouldThrowConstraintViolationExceptionWhenInvalidCPF(){
         Assertions.assertThrows(ConstraintViolationException.class, ()-> {
@@ -55,12 +107,70 @@ public class PersonServiceIT {
         });
     }
 
+    @Test
+    public void insertAllShouldRejectOnlyInvalidCPFWhenBatchHasInvalidCPF(){
+        PersonDTO secondPersonDto = PersonDTOFactory.createPersonDTO();
+        secondPersonDto.setCpf("82737002320");
+        List<PersonBatchResultDTO> results = personService.insertAll(List.of(personDto, invalidCPFPersonDto, secondPersonDto));
+        Assertions.assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        Assertions.assertEquals(BatchItemStatus.REJECTED, results.get(1).getStatus());
+        Assertions.assertEquals(BatchItemStatus.CREATED, results.get(2).getStatus());
+        Assertions.assertNotNull(results.get(2).getId());
+        Assertions.assertEquals(2L, personRepository.count());
+    }
+
     @Test
     public void findByIdShouldReturnPersonDTOWhenValidId(){
         existingId = personService.insert(personDto).getId();
         Assertions.assertEquals(existingId, personService.findById(existingId).getId());
     }
 
+    @Test
+    public void findByIdShouldServeFromCacheWhenPersonWasInserted(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        Assertions.assertEquals(savedPersonDto, cacheManager.getCache(CacheConfig.PERSONS).get(savedPersonDto.getId()).get());
+        Assertions.assertEquals(personService.findById(savedPersonDto.getId()), personService.findById(savedPersonDto.getId()));
+    }
+
+    @Test
+    public void findByIdShouldReturnCopiesWhenServedFromCache(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        PersonDTO cachedPersonDto = personService.findById(savedPersonDto.getId());
+        cachedPersonDto.setFirstName("Alterado");
+        cachedPersonDto.getPhones().clear();
+        Assertions.assertNotSame(cachedPersonDto, personService.findById(savedPersonDto.getId()));
+        Assertions.assertEquals(savedPersonDto, personService.findById(savedPersonDto.getId()));
+    }
+
+    @Test
+    public void cachePutShouldKeepNewerVersionWhenStaleReadArrivesAfterUpdate(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        PersonDTO stalePersonDto = personService.findById(savedPersonDto.getId());
+        savedPersonDto.setFirstName("Alterado");
+        PersonDTO updatedPersonDto = personService.update(savedPersonDto, savedPersonDto.getId());
+        cacheManager.getCache(CacheConfig.PERSONS).put(savedPersonDto.getId(), stalePersonDto);
+        Assertions.assertEquals(updatedPersonDto, personService.findById(savedPersonDto.getId()));
+    }
+
+    @Test
+    public void deleteShouldEvictCachedPersonWhenExistingId(){
+        existingId = personService.insert(personDto).getId();
+        personService.findById(existingId);
+        personService.delete(existingId);
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.PERSONS).get(existingId));
+    }
+
+    @Test
+    public void deleteAllByIdShouldEvictCachedPersonsOnlyAfterCommit(){
+        existingId = personService.insert(personDto).getId();
+        personService.findById(existingId);
+        personService.deleteAllById(List.of(existingId));
+        Assertions.assertNotNull(cacheManager.getCache(CacheConfig.PERSONS).get(existingId));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        Assertions.assertNull(cacheManager.getCache(CacheConfig.PERSONS).get(existingId));
+    }
+
     @Test
     public void findByIdShouldThrowResourceNotFoundExceptionWhenNonValidId(){
         Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -68,6 +178,19 @@ public class PersonServiceIT {
         });
     }
 
+    @Test
+    public void findByCpfShouldReturnPersonDTOWhenExistingCpf(){
+        existingId = personService.insert(personDto).getId();
+        Assertions.assertEquals(existingId, personService.findByCpf("444.532.133-87").getId());
+    }
+
+    @Test
+    public void findByCpfShouldThrowResourceNotFoundExceptionWhenNonExistingCpf(){
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personService.findByCpf("82737002320");
+        });
+    }
+
     @Test
     public void findAllShouldReturnPersonDTOPage(){
         personService.insert(personDto);
@@ -97,12 +220,118 @@ public class PersonServiceIT {
         Assertions.assertEquals("FirstName", personDTOPage.getContent().get(1).getFirstName());
     }
 
+    @Test
+    public void findAllShouldReturnOnlyMatchingPersonsWhenFilteredByAddressBirthDateAndPhone(){
+        personDto.setBirthDate(LocalDate.of(1990, 5, 20));
+        Long matchingId = personService.insert(personDto).getId();
+        personDto.setCpf("82737002320");
+        personDto.setBirthDate(LocalDate.of(2001, 1, 1));
+        personDto.getAddresses().forEach(address -> address.setCity("Campinas"));
+        personService.insert(personDto);
+        PersonFilterDTO filter = PersonFilterDTO.builder()
+                .city("city")
+                .state("state")
+                .birthDateFrom(LocalDate.of(1990, 1, 1))
+                .birthDateTo(LocalDate.of(1999, 12, 31))
+                .phoneType(PhoneType.HOME)
+                .build();
+
+        Page<PersonDTO> personDTOPage = personService.findAll(filter, PageRequest.of(0, 10));
+
+        Assertions.assertEquals(1, personDTOPage.getTotalElements());
+        Assertions.assertEquals(matchingId, personDTOPage.getContent().get(0).getId());
+        Assertions.assertEquals(1, personDTOPage.getContent().get(0).getAddresses().size());
+        Assertions.assertTrue(personService.findAll(PersonFilterDTO.builder().phoneType(PhoneType.MOBILE).build(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void findAllShouldThrowInvalidParameterExceptionWhenBirthDateRangeIsInverted(){
+        PersonFilterDTO filter = PersonFilterDTO.builder()
+                .birthDateFrom(LocalDate.of(2000, 1, 1))
+                .birthDateTo(LocalDate.of(1990, 1, 1))
+                .build();
+
+        Assertions.assertThrows(InvalidParameterException.class, () -> personService.findAll(filter, pageRequest));
+    }
+
+    @Test
+    public void findAllAfterShouldWalkAllPersonsInOrderWhenFollowingNextCursor(){
+        personService.insert(personDto);
+        personDto.setCpf("82737002320");
+        personDto.setFirstName("A-secondName");
+        personService.insert(personDto);
+        personDto.setCpf("71428793860");
+        personDto.setFirstName("B-thirdName");
+        personService.insert(personDto);
+
+        CursorPageDTO<PersonDTO> firstPage = personService.findAllAfter("", "firstName", 2, true);
+        Assertions.assertEquals(2, firstPage.getContent().size());
+        Assertions.assertEquals("A-secondName", firstPage.getContent().get(0).getFirstName());
+        Assertions.assertEquals("B-thirdName", firstPage.getContent().get(1).getFirstName());
+        Assertions.assertEquals(3L, firstPage.getTotalElements());
+        Assertions.assertNotNull(firstPage.getNextCursor());
+
+        CursorPageDTO<PersonDTO> secondPage = personService.findAllAfter(firstPage.getNextCursor(), "firstName", 2, false);
+        Assertions.assertEquals(1, secondPage.getContent().size());
+        Assertions.assertEquals("FirstName", secondPage.getContent().get(0).getFirstName());
+        Assertions.assertNull(secondPage.getNextCursor());
+        Assertions.assertNull(secondPage.getTotalElements());
+    }
+
+    @Test
+    public void findAllAfterShouldThrowInvalidParameterExceptionWhenSortFieldIsNotIndexed(){
+        Assertions.assertThrows(InvalidParameterException.class, () -> {
+            personService.findAllAfter("", "birthDate", 2, false);
+        });
+    }
+
+    @Test
+    public void exportAllShouldDeliverEveryPersonWithChildrenWhenPersonsExist(){
+        personService.insert(personDto);
+        personDto.setCpf("82737002320");
+        personService.insert(personDto);
+        List<PersonDTO> exported = new ArrayList<>();
+        personService.exportAll(exported::addAll);
+        Assertions.assertEquals(2, exported.size());
+        Assertions.assertEquals(1, exported.get(1).getAddresses().size());
+        Assertions.assertEquals(1, exported.get(1).getPhones().size());
+    }
+
     @Test
     public void deleteShouldReturnPersonDtoWhenExistingId(){
         existingId = personService.insert(personDto).getId();
         Assertions.assertEquals(existingId, personService.delete(existingId).getId());
     }
 
+    @Test
+    public void deleteByIdShouldRemovePersonAndChildrenWhenExistingId(){
+        existingId = personService.insert(personDto).getId();
+        personService.deleteById(existingId);
+        Assertions.assertFalse(personRepository.existsById(existingId));
+        Assertions.assertEquals(0L, addressRepository.count());
+        Assertions.assertEquals(0L, phoneRepository.count());
+    }
+
+    @Test
+    public void deleteByIdShouldThrowResourceNotFoundExceptionWhenNonExistingId(){
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personService.deleteById(nonExistingId);
+        });
+    }
+
+    @Test
+    public void deleteAllByIdShouldRemoveOnlyGivenPersonsWhenExistingIds(){
+        Long firstId = personService.insert(personDto).getId();
+        personDto.setCpf("82737002320");
+        Long secondId = personService.insert(personDto).getId();
+        personDto.setCpf("71428793860");
+        Long keptId = personService.insert(personDto).getId();
+        Assertions.assertEquals(2, personService.deleteAllById(List.of(firstId, secondId, nonExistingId)));
+        Assertions.assertEquals(1L, personRepository.count());
+        Assertions.assertTrue(personRepository.existsById(keptId));
+        Assertions.assertEquals(1L, addressRepository.count());
+    }
+
     @Test
     public void deleteSholdThrowResourceNotFoundExceptionWhenNonExistingId(){
         Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -124,4 +353,169 @@ public class PersonServiceIT {
         });
     }
 
+    @Test
+    public void patchShouldIssueSingleUpdateWhenOnlyLastNameChanges() throws Exception {
+        existingId = personService.insert(personDto).getId();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            PersonDTO patchedPersonDto = personService.patch(existingId, objectMapper.readTree("{\"lastName\":\"Silva\"}"));
+            Assertions.assertEquals("Silva", patchedPersonDto.getLastName());
+            Assertions.assertEquals("FirstName", patchedPersonDto.getFirstName());
+            Assertions.assertEquals(1L, statistics.getEntityUpdateCount());
+            Assertions.assertEquals(0L, statistics.getCollectionUpdateCount());
+            Assertions.assertEquals(0L, statistics.getCollectionRecreateCount());
+            Assertions.assertEquals(0L, statistics.getEntityInsertCount() + statistics.getEntityDeleteCount());
+        }
+        finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    public void patchShouldDiffChildrenWhenAddressesAndPhonesGiven() throws Exception {
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        Long addressId = savedPersonDto.getAddresses().iterator().next().getId();
+        entityManager.clear();
+        PersonDTO patchedPersonDto = personService.patch(savedPersonDto.getId(), objectMapper.readTree(
+                "{\"addresses\":[{\"id\":" + addressId + ",\"street\":\"Rua Nova\",\"number\":12,\"city\":\"city\",\"state\":\"state\",\"zipCode\":\"1111111\"},"
+                        + "{\"street\":\"Avenida\",\"number\":1,\"city\":\"city\",\"state\":\"state\",\"zipCode\":\"2222222\"}],"
+                        + "\"phones\":null}"));
+        Assertions.assertEquals(2, patchedPersonDto.getAddresses().size());
+        Assertions.assertTrue(patchedPersonDto.getAddresses().stream()
+                .anyMatch(address -> address.getId().equals(addressId) && address.getStreet().equals("Rua Nova")));
+        Assertions.assertTrue(patchedPersonDto.getPhones().isEmpty());
+        Assertions.assertEquals(2L, addressRepository.count());
+        Assertions.assertEquals(0L, phoneRepository.count());
+    }
+
+    @Test
+    public void patchShouldThrowInvalidParameterExceptionWhenUnknownField() throws Exception {
+        existingId = personService.insert(personDto).getId();
+        Assertions.assertThrows(InvalidParameterException.class, () -> {
+            personService.patch(existingId, objectMapper.readTree("{\"nickname\":\"Sam\"}"));
+        });
+    }
+
+    @Test
+    public void patchShouldThrowConstraintViolationExceptionWhenInvalidCPF() throws Exception {
+        existingId = personService.insert(personDto).getId();
+        Assertions.assertThrows(ConstraintViolationException.class, () -> {
+            personService.patch(existingId, objectMapper.readTree("{\"cpf\":\"11111111111\"}"));
+        });
+    }
+
+    @Test
+    public void patchShouldThrowResourceNotFoundExceptionWhenNonExistingId() throws Exception {
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personService.patch(nonExistingId, objectMapper.readTree("{\"lastName\":\"Silva\"}"));
+        });
+    }
+
+    @Test
+    public void updateShouldIncrementVersionWhenAddressChangedInPlace(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        entityManager.clear();
+        savedPersonDto.getAddresses().iterator().next().setStreet("Rua Nova");
+        PersonDTO updatedPersonDto = personService.update(savedPersonDto, savedPersonDto.getId());
+        Assertions.assertEquals(savedPersonDto.getVersion() + 1, updatedPersonDto.getVersion());
+        Assertions.assertEquals(updatedPersonDto.getVersion(), personService.findVersion(savedPersonDto.getId()));
+    }
+
+    @Test
+    public void patchShouldIncrementVersionOnceWhenPhonesRemoved() throws Exception {
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        entityManager.clear();
+        PersonDTO patchedPersonDto = personService.patch(savedPersonDto.getId(), objectMapper.readTree("{\"phones\":[]}"));
+        Assertions.assertEquals(savedPersonDto.getVersion() + 1, patchedPersonDto.getVersion());
+    }
+
+    @Test
+    public void updateShouldThrowPreconditionFailedExceptionWhenStaleVersion(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        entityManager.clear();
+        savedPersonDto.setLastName("Silva");
+        savedPersonDto = personService.update(savedPersonDto, savedPersonDto.getId());
+        savedPersonDto.setVersion(savedPersonDto.getVersion() - 1);
+        PersonDTO stalePersonDto = savedPersonDto;
+        Assertions.assertThrows(PreconditionFailedException.class, () -> {
+            personService.update(stalePersonDto, stalePersonDto.getId());
+        });
+    }
+
+    @Test
+    public void findVersionShouldThrowResourceNotFoundExceptionWhenNonExistingId(){
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personService.findVersion(nonExistingId);
+        });
+    }
+
+    @Test
+    public void findAllShouldNotIssueStatementsPerPersonWhenPageHasSeveralPersons(){
+        personService.insert(personDto);
+        personDto.setCpf("82737002320");
+        personService.insert(personDto);
+        personDto.setCpf("71428793860");
+        personService.insert(personDto);
+        entityManager.clear();
+        Page<PersonDTO> personDTOPage = assertMaxStatements(4, () -> personService.findAll(PageRequest.of(0, 3)));
+        Assertions.assertEquals(3, personDTOPage.getContent().size());
+    }
+
+    @Test
+    public void findAllShouldReturnSummariesInOneQueryPerPageWhenNoExpansion(){
+        personService.insert(personDto);
+        personDto.setCpf("82737002320");
+        personService.insert(personDto);
+        entityManager.clear();
+        Page<PersonDTO> personDTOPage = assertMaxStatements(3,
+                () -> personService.findAll(new PersonFilterDTO(), PageRequest.of(0, 2, Sort.by("id")), EnumSet.noneOf(PersonExpansion.class)));
+        Assertions.assertEquals(2, personDTOPage.getContent().size());
+        personDTOPage.forEach(personDTO -> {
+            Assertions.assertNotNull(personDTO.getCpf());
+            Assertions.assertNull(personDTO.getAddresses());
+            Assertions.assertNull(personDTO.getPhones());
+        });
+    }
+
+    @Test
+    public void findByIdShouldMapOnlyExpandedCollectionWhenExpandingAddresses(){
+        existingId = personService.insert(personDto).getId();
+        entityManager.clear();
+        PersonDTO personDTO = assertMaxStatements(1, () -> personService.findById(existingId, EnumSet.of(PersonExpansion.ADDRESSES)));
+        Assertions.assertEquals(personDto.getAddresses().size(), personDTO.getAddresses().size());
+        Assertions.assertNull(personDTO.getPhones());
+    }
+
+    @Test
+    public void findByIdShouldThrowResourceNotFoundExceptionWhenNonExistingIdWithoutExpansion(){
+        Assertions.assertThrows(ResourceNotFoundException.class,
+                () -> personService.findById(nonExistingId, EnumSet.noneOf(PersonExpansion.class)));
+    }
+
+    @Test
+    public void findByIdShouldExecuteAtMostThreeStatementsWhenCacheIsCold(){
+        existingId = personService.insert(personDto).getId();
+        cacheManager.getCache(CacheConfig.PERSONS).clear();
+        entityManager.clear();
+        assertMaxStatements(3, () -> personService.findById(existingId));
+    }
+
+    @Test
+    public void updateShouldExecuteAtMostFourStatementsWhenLastNameChanges(){
+        PersonDTO savedPersonDto = personService.insert(personDto);
+        entityManager.clear();
+        savedPersonDto.setLastName("Silva");
+        assertMaxStatements(4, () -> personService.update(savedPersonDto, savedPersonDto.getId()));
+    }
+
+    @Test
+    public void deleteByIdShouldExecuteAtMostSevenStatementsWhenExistingId(){
+        existingId = personService.insert(personDto).getId();
+        entityManager.clear();
+        assertMaxStatements(7, () -> personService.deleteById(existingId));
+    }
+
 }
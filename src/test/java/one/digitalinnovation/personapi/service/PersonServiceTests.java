@@ -1,13 +1,16 @@
 package one.digitalinnovation.personapi.service;
 
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
 import one.digitalinnovation.personapi.dto.PersonDTO;
 import one.digitalinnovation.personapi.entity.Person;
+import one.digitalinnovation.personapi.enums.PersonSortKey;
 import one.digitalinnovation.personapi.exception.ConstraintViolationException;
 import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
 import one.digitalinnovation.personapi.factory.PersonDTOFactory;
 import one.digitalinnovation.personapi.factory.PersonFactory;
 import one.digitalinnovation.personapi.mapper.PersonMapper;
 import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.repository.PersonSeekKey;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +18,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.util.List;
 import java.util.Optional;
@@ -44,6 +48,9 @@ public class PersonServiceTests {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     void setUp() throws Exception{
         nonExistingId = 2L;
@@ -62,7 +69,7 @@ public class PersonServiceTests {
 
     @Test
     public void insertShoulThrowConstraintViolationExceptionWhenNonInvalidCPF(){
-        doThrow(javax.validation.ConstraintViolationException.class).when(personRepository).save(personNonValidCPF);
+        doThrow(javax.validation.ConstraintViolationException.class).when(personRepository).saveAndFlush(personNonValidCPF);
 
         Assertions.assertThrows(ConstraintViolationException.class, ()->{
             personService.insert(PersonMapper.INSTANCE.toDto(personNonValidCPF));
@@ -71,7 +78,7 @@ public class PersonServiceTests {
 
     @Test
     public void insertShouldReturnPersonDtoWhenGivenPersonDto(){
-        when(personRepository.save(validPerson)).thenReturn(validPerson);
+        when(personRepository.saveAndFlush(validPerson)).thenReturn(validPerson);
 
         Assertions.assertEquals(personDto, personService.insert(personDto));
     }
@@ -95,14 +102,18 @@ public class PersonServiceTests {
 
     @Test
     public void findAllShoulReturnPageOfPersonDtoWhenGivenPageable(){
-        when(personRepository.findAll((Pageable) ArgumentMatchers.any())).thenReturn(personPage);
+        Person person = personPage.getContent().get(0);
+        person.setId(existingId);
+        when(personRepository.findPageIds((Pageable) ArgumentMatchers.any())).thenReturn(new PageImpl<>(List.of(existingId)));
+        when(personRepository.findWithAddressesByIdIn(List.of(existingId))).thenReturn(List.of(person));
+        personDTOPage.getContent().get(0).setId(existingId);
 
         Assertions.assertEquals(personDTOPage, personService.findAll(pageable));
     }
 
     @Test
-    public void deleteShouldThrowEmptyResultDataAccessExceptionWhenNonExistingId(){
-        doThrow(EmptyResultDataAccessException.class).when(personRepository).deleteById(nonExistingId);
+    public void deleteShouldThrowResourceNotFoundExceptionWhenNonExistingId(){
+        when(personRepository.findById(nonExistingId)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ResourceNotFoundException.class, ()->{
             personService.delete(nonExistingId);
@@ -113,16 +124,42 @@ public class PersonServiceTests {
     @Test
     public void deleteShouldReturnPersonDtoWhenIdExisting(){
         when(personRepository.findById(existingId)).thenReturn(Optional.of(validPerson));
-        doNothing().when(personRepository).deleteById(existingId);
+        when(personRepository.deleteAllByIdInBulk(ArgumentMatchers.eq(List.of(existingId)), ArgumentMatchers.anyCollection(), ArgumentMatchers.anyCollection())).thenReturn(1);
 
         Assertions.assertEquals(personDto, personService.delete(existingId));
     }
 
+    @Test
+    public void deleteByIdShouldThrowResourceNotFoundExceptionWhenNonExistingId(){
+        when(personRepository.findWithAddressesByIdIn(List.of(nonExistingId))).thenReturn(List.of());
+
+        Assertions.assertThrows(ResourceNotFoundException.class, ()->{
+            personService.deleteById(nonExistingId);
+        });
+    }
+
     @Test
     public void updateShouldReturnPersonDtoWhenGivenPersonTdoAndIdExisting(){
-        when(personRepository.save(validPerson)).thenReturn(validPerson);
+        validPerson.getAddresses().forEach(address -> address.setId(existingId));
+        validPerson.getPhones().forEach(phone -> phone.setId(existingId));
+        personDto = PersonMapper.INSTANCE.toDto(validPerson);
+        when(personRepository.findById(existingId)).thenReturn(Optional.of(validPerson));
 
         Assertions.assertEquals(personDto, personService.update(personDto, existingId));
     }
 
+    @Test
+    public void findAllAfterShouldBuildNextCursorFromScannedKeysWhenRowsWereDeletedBeforeFetch(){
+        when(personRepository.findKeysAfter(any(), eq(PersonSortKey.FIRST_NAME), eq(Sort.Direction.ASC), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(new PersonSeekKey(1L, "Ana"), new PersonSeekKey(2L, "Bia"), new PersonSeekKey(3L, "Caio")));
+        when(personRepository.findWithAddressesByIdIn(List.of(1L, 2L))).thenReturn(List.of());
+
+        CursorPageDTO<PersonDTO> page = personService.findAllAfter("", "firstName", 2, false);
+
+        Assertions.assertTrue(page.getContent().isEmpty());
+        PersonCursor next = PersonCursor.decode(page.getNextCursor());
+        Assertions.assertEquals(2L, next.getId());
+        Assertions.assertEquals("Bia", next.getValue());
+    }
+
 }
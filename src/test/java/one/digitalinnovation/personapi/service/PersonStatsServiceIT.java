@@ -0,0 +1,114 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+public class PersonStatsServiceIT {
+
+    private List<Long> insertedIds;
+    private PersonDTO personDTO;
+
+    @Autowired
+    private PersonStatsService personStatsService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        insertedIds = new ArrayList<>();
+        personDTO = PersonDTOFactory.createPersonDTO();
+        personDTO.setBirthDate(LocalDate.of(1871, 3, 2));
+        personDTO.getAddresses().forEach(address -> address.setState("ZZ"));
+        personDTO = personService.insert(personDTO);
+        insertedIds.add(personDTO.getId());
+    }
+
+    @AfterEach
+    void tearDown(){
+        personService.deleteAllById(insertedIds);
+    }
+
+    @Test
+    public void statsShouldCountPersonWhenInsertIsCommitted(){
+        PersonStatsDTO stats = personStatsService.stats();
+
+        Assertions.assertEquals(1L, stats.getByState().get("ZZ"));
+        Assertions.assertEquals(1L, stats.getByBirthDecade().get("1870-1879"));
+    }
+
+    @Test
+    public void statsShouldMoveCountsWhenUpdateIsCommitted(){
+        personDTO.getAddresses().forEach(address -> address.setState("YY"));
+        personDTO.setBirthDate(LocalDate.of(1881, 3, 2));
+        personService.update(personDTO, personDTO.getId());
+
+        PersonStatsDTO stats = personStatsService.stats();
+        Assertions.assertNull(stats.getByState().get("ZZ"));
+        Assertions.assertEquals(1L, stats.getByState().get("YY"));
+        Assertions.assertNull(stats.getByBirthDecade().get("1870-1879"));
+        Assertions.assertEquals(1L, stats.getByBirthDecade().get("1880-1889"));
+    }
+
+    @Test
+    public void statsShouldDropCountsWhenDeleteIsCommitted(){
+        long total = personStatsService.stats().getTotal();
+
+        personService.deleteById(personDTO.getId());
+
+        PersonStatsDTO stats = personStatsService.stats();
+        Assertions.assertEquals(total - 1, stats.getTotal());
+        Assertions.assertNull(stats.getByState().get("ZZ"));
+    }
+
+    @Test
+    public void rebuildShouldMatchIncrementalCountersWhenNothingDrifted(){
+        PersonStatsDTO incremental = personStatsService.stats();
+
+        personStatsService.rebuild();
+
+        PersonStatsDTO rebuilt = personStatsService.stats();
+        Assertions.assertEquals(personRepository.count(), rebuilt.getTotal());
+        Assertions.assertEquals(incremental.getByState(), rebuilt.getByState());
+        Assertions.assertEquals(incremental.getByPhoneType(), rebuilt.getByPhoneType());
+        Assertions.assertEquals(incremental.getByBirthDecade(), rebuilt.getByBirthDecade());
+        Assertions.assertEquals(0, rebuilt.getDrift());
+        Assertions.assertNotNull(rebuilt.getReconciledAt());
+    }
+
+    @Test
+    public void rebuildShouldMatchIncrementalCountersWhenPersonsWereUpdatedAndDeleted(){
+        PersonDTO second = PersonDTOFactory.createPersonDTO();
+        second.setCpf("82737002320");
+        second = personService.insert(second);
+        insertedIds.add(second.getId());
+        personDTO.getAddresses().forEach(address -> address.setState("YY"));
+        personService.update(personDTO, personDTO.getId());
+        personService.deleteAllById(List.of(second.getId()));
+        PersonStatsDTO incremental = personStatsService.stats();
+
+        personStatsService.rebuild();
+
+        PersonStatsDTO rebuilt = personStatsService.stats();
+        Assertions.assertEquals(personRepository.count(), rebuilt.getTotal());
+        Assertions.assertEquals(incremental.getByState(), rebuilt.getByState());
+        Assertions.assertEquals(incremental.getByPhoneType(), rebuilt.getByPhoneType());
+        Assertions.assertEquals(0, rebuilt.getDrift());
+    }
+}
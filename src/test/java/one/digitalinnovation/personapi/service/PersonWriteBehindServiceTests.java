@@ -0,0 +1,164 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.enums.WriteStatus;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.exception.ServiceUnavailableException;
+import one.digitalinnovation.personapi.exception.TooManyRequestsException;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class PersonWriteBehindServiceTests {
+
+    private CountDownLatch writerBusy;
+    private CountDownLatch releaseWriter;
+    private PersonDTO personDto;
+    private Long existingId;
+
+    @InjectMocks
+    private PersonWriteBehindService personWriteBehindService;
+
+    @Mock
+    private PersonService personService;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        existingId = 1L;
+        personDto = PersonDTOFactory.createPersonDTO();
+        writerBusy = new CountDownLatch(1);
+        releaseWriter = new CountDownLatch(1);
+        ReflectionTestUtils.setField(personWriteBehindService, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(personWriteBehindService, "shardRouter", new ShardRouter(1));
+        ReflectionTestUtils.setField(personWriteBehindService, "capacity", 1);
+        ReflectionTestUtils.setField(personWriteBehindService, "batchSize", 10);
+        ReflectionTestUtils.setField(personWriteBehindService, "shutdownTimeout", Duration.ofSeconds(10));
+        when(personService.insertAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            writerBusy.countDown();
+            releaseWriter.await(10, TimeUnit.SECONDS);
+            return List.of(PersonBatchResultDTO.builder().index(0).id(existingId).status(BatchItemStatus.CREATED).build());
+        });
+        personWriteBehindService.start();
+    }
+
+    @AfterEach
+    void tearDown(){
+        releaseWriter.countDown();
+        personWriteBehindService.stop();
+    }
+
+    @Test
+    public void submitUpdateShouldCoalescePendingWritesWhenSameId() throws Exception {
+        String insertTicket = personWriteBehindService.submitInsert(personDto).getTicket();
+        Assertions.assertTrue(writerBusy.await(10, TimeUnit.SECONDS));
+        PersonDTO firstUpdate = PersonDTOFactory.createPersonDTO();
+        firstUpdate.setLastName("First");
+        PersonDTO secondUpdate = PersonDTOFactory.createPersonDTO();
+        secondUpdate.setLastName("Second");
+        String firstTicket = personWriteBehindService.submitUpdate(existingId, firstUpdate).getTicket();
+        String secondTicket = personWriteBehindService.submitUpdate(existingId, secondUpdate).getTicket();
+
+        releaseWriter.countDown();
+        personWriteBehindService.stop();
+
+        verify(personService, times(1)).applyUpdate(ArgumentMatchers.any(), ArgumentMatchers.eq(existingId));
+        verify(personService).applyUpdate(secondUpdate, existingId);
+        verify(personService).putAfterCommit(ArgumentMatchers.anyList());
+        verify(personService, never()).update(ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assertions.assertEquals(WriteStatus.COMPLETED, personWriteBehindService.findStatus(insertTicket).getStatus());
+        Assertions.assertEquals(existingId, personWriteBehindService.findStatus(insertTicket).getId());
+        Assertions.assertEquals(WriteStatus.COMPLETED, personWriteBehindService.findStatus(firstTicket).getStatus());
+        Assertions.assertEquals(WriteStatus.COMPLETED, personWriteBehindService.findStatus(secondTicket).getStatus());
+    }
+
+    @Test
+    public void submitShouldThrowTooManyRequestsExceptionWhenQueueIsFull() throws Exception {
+        personWriteBehindService.submitInsert(personDto);
+        Assertions.assertTrue(writerBusy.await(10, TimeUnit.SECONDS));
+        personWriteBehindService.submitUpdate(existingId, PersonDTOFactory.createPersonDTO());
+
+        Assertions.assertThrows(TooManyRequestsException.class, () -> {
+            personWriteBehindService.submitUpdate(2L, PersonDTOFactory.createPersonDTO());
+        });
+        Assertions.assertEquals(WriteStatus.PENDING,
+                personWriteBehindService.submitUpdate(existingId, PersonDTOFactory.createPersonDTO()).getStatus());
+    }
+
+    @Test
+    public void submitUpdateShouldReportFailureWhenUpdateThrows() throws Exception {
+        when(personService.applyUpdate(ArgumentMatchers.any(), ArgumentMatchers.eq(existingId))).thenThrow(new ResourceNotFoundException("ID não encontrado !"));
+        when(personService.update(ArgumentMatchers.any(), ArgumentMatchers.eq(existingId))).thenThrow(new ResourceNotFoundException("ID não encontrado !"));
+        String ticket = personWriteBehindService.submitUpdate(existingId, personDto).getTicket();
+
+        personWriteBehindService.stop();
+
+        Assertions.assertEquals(WriteStatus.FAILED, personWriteBehindService.findStatus(ticket).getStatus());
+        Assertions.assertEquals("ID não encontrado !", personWriteBehindService.findStatus(ticket).getMessage());
+    }
+
+    @Test
+    public void findStatusShouldThrowResourceNotFoundExceptionWhenUnknownTicket(){
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            personWriteBehindService.findStatus("unknown");
+        });
+    }
+
+    @Test
+    public void submitShouldThrowServiceUnavailableExceptionWhenStopped(){
+        personWriteBehindService.stop();
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> {
+            personWriteBehindService.submitInsert(personDto);
+        });
+    }
+
+    @Test
+    public void submitShouldKeepDrainingWhenWriteThrowsError() throws Exception {
+        doThrow(new StackOverflowError()).when(personService).insertAll(ArgumentMatchers.anyList());
+        String insertTicket = personWriteBehindService.submitInsert(personDto).getTicket();
+        while (personWriteBehindService.findStatus(insertTicket).getStatus() == WriteStatus.PENDING) {
+            Thread.sleep(1);
+        }
+        String updateTicket = personWriteBehindService.submitUpdate(existingId, PersonDTOFactory.createPersonDTO()).getTicket();
+
+        personWriteBehindService.stop();
+
+        Assertions.assertEquals(WriteStatus.FAILED, personWriteBehindService.findStatus(insertTicket).getStatus());
+        Assertions.assertEquals("StackOverflowError", personWriteBehindService.findStatus(insertTicket).getMessage());
+        Assertions.assertEquals(WriteStatus.COMPLETED, personWriteBehindService.findStatus(updateTicket).getStatus());
+    }
+
+    @Test
+    public void stopShouldFailQueuedWritesWhenShutdownTimeoutElapses() throws Exception {
+        ReflectionTestUtils.setField(personWriteBehindService, "shutdownTimeout", Duration.ofMillis(50));
+        personWriteBehindService.submitInsert(personDto);
+        Assertions.assertTrue(writerBusy.await(10, TimeUnit.SECONDS));
+        String queuedTicket = personWriteBehindService.submitUpdate(existingId, PersonDTOFactory.createPersonDTO()).getTicket();
+
+        personWriteBehindService.stop();
+
+        Assertions.assertEquals(WriteStatus.FAILED, personWriteBehindService.findStatus(queuedTicket).getStatus());
+        verify(personService, never()).applyUpdate(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+}
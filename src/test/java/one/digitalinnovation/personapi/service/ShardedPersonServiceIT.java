@@ -0,0 +1,195 @@
+package one.digitalinnovation.personapi.service;
+
+import one.digitalinnovation.personapi.datasource.ShardContext;
+import one.digitalinnovation.personapi.datasource.ShardRouter;
+import one.digitalinnovation.personapi.dto.CursorPageDTO;
+import one.digitalinnovation.personapi.dto.PersonBatchResultDTO;
+import one.digitalinnovation.personapi.dto.PersonDTO;
+import one.digitalinnovation.personapi.dto.PersonFilterDTO;
+import one.digitalinnovation.personapi.enums.BatchItemStatus;
+import one.digitalinnovation.personapi.exception.InvalidParameterException;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.factory.PersonDTOFactory;
+import one.digitalinnovation.personapi.repository.PersonRepository;
+import one.digitalinnovation.personapi.util.ValidCpfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "spring.cache.type=none")
+@ActiveProfiles("sharded")
+public class ShardedPersonServiceIT {
+
+    private static final String STATE = "SH";
+
+    private List<PersonDTO> inserted;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonSearchService personSearchService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp(){
+        inserted = new ArrayList<>();
+        Set<Integer> coveredShards = new HashSet<>();
+        for (int seed = 0; inserted.size() < 10 || coveredShards.size() < shardRouter.getShardCount(); seed++) {
+            PersonDTO personDTO = PersonDTOFactory.createPersonDTO();
+            personDTO.setCpf(ValidCpfs.of(seed));
+            personDTO.setFirstName("Sharded" + (char) ('A' + seed % 26));
+            personDTO.getAddresses().forEach(address -> address.setState(STATE));
+            inserted.add(personService.insert(personDTO));
+            coveredShards.add(shardRouter.shardOf(personDTO.getCpf()));
+        }
+    }
+
+    @AfterEach
+    void tearDown(){
+        inserted.forEach(personDTO -> personService.deleteById(personDTO.getId()));
+    }
+
+    @Test
+    public void insertShouldStorePersonOnlyOnShardOfCpf(){
+        PersonDTO personDTO = inserted.get(0);
+        int shard = shardRouter.shardOf(personDTO.getCpf());
+
+        for (Integer candidate : shardRouter.shards()) {
+            boolean stored = ShardContext.call(candidate, () -> personRepository.findById(personDTO.getId()).isPresent());
+            Assertions.assertEquals(candidate == shard, stored);
+        }
+    }
+
+    @Test
+    public void insertShouldGenerateGloballyUniqueIdsThatEncodeTheShard(){
+        Set<Long> ids = inserted.stream().map(PersonDTO::getId).collect(Collectors.toSet());
+
+        Assertions.assertEquals(inserted.size(), ids.size());
+        inserted.forEach(personDTO ->
+                Assertions.assertEquals(shardRouter.shardOf(personDTO.getCpf()), shardRouter.shardOf(personDTO.getId())));
+    }
+
+    @Test
+    public void findByIdAndFindByCpfShouldReadFromOwningShard(){
+        for (PersonDTO personDTO : inserted) {
+            Assertions.assertEquals(personDTO.getCpf(), personService.findById(personDTO.getId()).getCpf());
+            Assertions.assertEquals(personDTO.getId(), personService.findByCpf(personDTO.getCpf()).getId());
+        }
+    }
+
+    @Test
+    public void updateShouldThrowInvalidParameterExceptionWhenCpfBelongsToAnotherShard(){
+        PersonDTO personDTO = inserted.get(0);
+        PersonDTO other = inserted.stream()
+                .filter(candidate -> shardRouter.shardOf(candidate.getCpf()) != shardRouter.shardOf(personDTO.getCpf()))
+                .findFirst().get();
+        personDTO.setCpf(other.getCpf());
+
+        Assertions.assertThrows(InvalidParameterException.class, () -> personService.update(personDTO, personDTO.getId()));
+    }
+
+    @Test
+    public void findAllAfterShouldMergeShardsInOrderWhenFollowingNextCursor(){
+        PersonFilterDTO filter = PersonFilterDTO.builder().state(STATE).build();
+        List<PersonDTO> walked = new ArrayList<>();
+        CursorPageDTO<PersonDTO> page = personService.findAllAfter(filter, "", "firstName", 3, true);
+        Assertions.assertEquals(inserted.size(), page.getTotalElements());
+        walked.addAll(page.getContent());
+        while (page.getNextCursor() != null) {
+            page = personService.findAllAfter(filter, page.getNextCursor(), "firstName", 3, false);
+            walked.addAll(page.getContent());
+        }
+
+        List<Long> expected = inserted.stream()
+                .sorted(Comparator.comparing(PersonDTO::getFirstName).thenComparing(PersonDTO::getId))
+                .map(PersonDTO::getId)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, walked.stream().map(PersonDTO::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void findAllShouldMergeShardsInSortOrderWhenPagingByOffset(){
+        PersonFilterDTO filter = PersonFilterDTO.builder().state(STATE).build();
+        List<Long> expected = inserted.stream()
+                .sorted(Comparator.comparing(PersonDTO::getFirstName).reversed().thenComparing(PersonDTO::getId))
+                .map(PersonDTO::getId)
+                .collect(Collectors.toList());
+
+        Page<PersonDTO> page = personService.findAll(filter, PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "firstName")));
+
+        Assertions.assertEquals(inserted.size(), page.getTotalElements());
+        Assertions.assertEquals(expected.subList(3, 6), page.getContent().stream().map(PersonDTO::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void insertAllShouldStoreEachPersonOnItsShardAndKeepResultOrder(){
+        List<PersonDTO> batch = new ArrayList<>();
+        for (int seed = 1000; seed < 1008; seed++) {
+            PersonDTO personDTO = PersonDTOFactory.createPersonDTO();
+            personDTO.setCpf(ValidCpfs.of(seed));
+            batch.add(personDTO);
+        }
+        batch.get(3).setCpf("123");
+
+        List<PersonBatchResultDTO> results = personService.insertAll(batch);
+        results.stream().filter(result -> result.getId() != null)
+                .forEach(result -> inserted.add(PersonDTO.builder().id(result.getId()).build()));
+
+        for (int i = 0; i < batch.size(); i++) {
+            PersonBatchResultDTO result = results.get(i);
+            Assertions.assertEquals(i, result.getIndex());
+            if (i == 3) {
+                Assertions.assertEquals(BatchItemStatus.REJECTED, result.getStatus());
+                continue;
+            }
+            Assertions.assertEquals(BatchItemStatus.CREATED, result.getStatus());
+            Assertions.assertEquals(shardRouter.shardOf(batch.get(i).getCpf()), shardRouter.shardOf(result.getId()));
+            Assertions.assertEquals(batch.get(i).getCpf(), personService.findById(result.getId()).getCpf());
+        }
+    }
+
+    @Test
+    public void deleteAllByIdShouldDeleteFromEveryShard(){
+        List<Long> ids = inserted.stream().map(PersonDTO::getId).collect(Collectors.toList());
+
+        Assertions.assertEquals(ids.size(), personService.deleteAllById(ids));
+
+        ids.forEach(id -> Assertions.assertThrows(ResourceNotFoundException.class, () -> personService.findById(id)));
+        inserted.clear();
+    }
+
+    @Test
+    public void exportAllShouldVisitEveryShard(){
+        List<Long> exported = new ArrayList<>();
+        personService.exportAll(chunk -> chunk.forEach(personDTO -> exported.add(personDTO.getId())));
+
+        Assertions.assertTrue(exported.containsAll(inserted.stream().map(PersonDTO::getId).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void searchShouldFindPersonsFromEveryShardWhenIndexIsRebuilt(){
+        personSearchService.rebuild();
+
+        Assertions.assertEquals(inserted.size(), personSearchService.search("sharded", 100).size());
+    }
+}
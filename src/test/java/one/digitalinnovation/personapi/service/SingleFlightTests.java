@@ -0,0 +1,188 @@
+package one.digitalinnovation.personapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.personapi.exception.ResourceNotFoundException;
+import one.digitalinnovation.personapi.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private CountDownLatch release;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp(){
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(CALLERS);
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown(){
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void executeShouldLoadOnceAndShareResultWhenCallersRequestSameKeyConcurrently() throws Exception {
+        SingleFlight<Long, Object> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+        Object loaded = new Object();
+
+        List<CompletableFuture<Object>> results = callConcurrently(singleFlight, 1L, blockingLoader(() -> loaded));
+        release.countDown();
+
+        for (CompletableFuture<Object> result : results) {
+            Assertions.assertSame(loaded, result.get(10, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, count("executed"));
+        Assertions.assertEquals(CALLERS - 1, count("coalesced"));
+        Assertions.assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void executeShouldPropagateLoaderExceptionToEveryCallerWhenLoadFails() throws Exception {
+        SingleFlight<Long, Object> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+
+        Supplier<Object> loader = blockingLoader(() -> { throw new ResourceNotFoundException("ID não encontrado !"); });
+
+        List<CompletableFuture<Object>> results = callConcurrently(() -> {
+            try {
+                return singleFlight.execute(1L, loader);
+            }
+            catch (RuntimeException e) {
+                return e;
+            }
+        });
+        release.countDown();
+
+        List<Object> thrown = new ArrayList<>();
+        for (CompletableFuture<Object> result : results) {
+            thrown.add(result.get(10, TimeUnit.SECONDS));
+        }
+        ResourceNotFoundException shared = (ResourceNotFoundException) thrown.stream()
+                .filter(ResourceNotFoundException.class::isInstance).findFirst().orElseThrow();
+        Set<Object> wrapped = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object e : thrown) {
+            if (e != shared) {
+                Assertions.assertTrue(e instanceof CompletionException);
+                Assertions.assertSame(shared, ((CompletionException) e).getCause());
+                wrapped.add(e);
+            }
+        }
+        Assertions.assertEquals(CALLERS - 1, wrapped.size());
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void executeShouldGiveEachWaiterItsOwnCopyWhenCopierGiven() throws Exception {
+        SingleFlight<Long, Object> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry,
+                value -> new ArrayList<>((List<?>) value));
+        List<String> loaded = new ArrayList<>(List.of("a"));
+
+        List<CompletableFuture<Object>> results = callConcurrently(singleFlight, 1L, blockingLoader(() -> loaded));
+        release.countDown();
+
+        Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CompletableFuture<Object> result : results) {
+            Object value = result.get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(loaded, value);
+            values.add(value);
+        }
+        Assertions.assertEquals(CALLERS, values.size());
+        Assertions.assertTrue(values.contains(loaded));
+    }
+
+    @Test
+    public void executeShouldThrowServiceUnavailableExceptionAndStartFreshLoadWhenWaitExceedsTimeout() throws Exception {
+        SingleFlight<Long, Object> singleFlight = new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> stuck = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+            started.countDown();
+            awaitRelease();
+            return "stale";
+        }), executor);
+        Assertions.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> singleFlight.execute(1L, () -> "fresh"));
+        Assertions.assertEquals("fresh", singleFlight.execute(1L, () -> "fresh"));
+        Assertions.assertEquals(1, count("timeout"));
+        release.countDown();
+        Assertions.assertEquals("stale", stuck.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void executeShouldLoadAgainWhenPreviousLoadHasCompleted(){
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+
+        Assertions.assertEquals(1, singleFlight.execute(1L, loads::incrementAndGet));
+        Assertions.assertEquals(2, singleFlight.execute(1L, loads::incrementAndGet));
+        Assertions.assertEquals(2, count("executed"));
+        Assertions.assertEquals(0, count("coalesced"));
+    }
+
+    private List<CompletableFuture<Object>> callConcurrently(SingleFlight<Long, Object> singleFlight, Long key,
+                                                            Supplier<Object> loader) throws InterruptedException {
+        return callConcurrently(() -> singleFlight.execute(key, loader));
+    }
+
+    private List<CompletableFuture<Object>> callConcurrently(Supplier<Object> call) throws InterruptedException {
+        List<CompletableFuture<Object>> results = new ArrayList<>();
+        results.add(CompletableFuture.supplyAsync(call, executor));
+        while (loads.get() == 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(CompletableFuture.supplyAsync(call, executor));
+        }
+        while (count("coalesced") < CALLERS - 1) {
+            Thread.sleep(1);
+        }
+        return results;
+    }
+
+    private Supplier<Object> blockingLoader(Supplier<Object> result){
+        return () -> {
+            loads.incrementAndGet();
+            awaitRelease();
+            return result.get();
+        };
+    }
+
+    private void awaitRelease(){
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double count(String result){
+        return meterRegistry.get(SingleFlight.LOADS_METRIC).tag("query", "test").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.personapi.statistics;
+
+import one.digitalinnovation.personapi.dto.PersonStatsDTO;
+import one.digitalinnovation.personapi.enums.PhoneType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class PersonCountersTests {
+
+    private PersonCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new PersonCounters();
+        counters.add(LocalDate.of(1990, 5, 20), List.of("SP", "SP", "RJ"), List.of(PhoneType.HOME, PhoneType.MOBILE));
+        counters.add(null, List.of("SP"), List.of(PhoneType.HOME));
+    }
+
+    @Test
+    public void snapshotShouldCountEachPersonOncePerDistinctValue() {
+        PersonStatsDTO stats = counters.snapshot();
+
+        Assertions.assertEquals(2, stats.getTotal());
+        Assertions.assertEquals(Map.of("RJ", 1L, "SP", 2L), stats.getByState());
+        Assertions.assertEquals(Map.of(PhoneType.HOME, 2L, PhoneType.MOBILE, 1L), stats.getByPhoneType());
+        Assertions.assertEquals(Map.of("1990-1999", 1L, PersonCounters.UNKNOWN_BIRTH_DECADE, 1L), stats.getByBirthDecade());
+    }
+
+    @Test
+    public void subtractAndAddShouldMoveCountsWhenPersonIsUpdated() {
+        counters.subtract(LocalDate.of(1990, 5, 20), List.of("SP", "RJ"), List.of(PhoneType.HOME, PhoneType.MOBILE));
+        counters.add(LocalDate.of(2001, 1, 1), List.of("MG"), List.of(PhoneType.COMMERCIAL));
+
+        PersonStatsDTO stats = counters.snapshot();
+        Assertions.assertEquals(2, stats.getTotal());
+        Assertions.assertEquals(Map.of("MG", 1L, "SP", 1L), stats.getByState());
+        Assertions.assertEquals(Map.of(PhoneType.HOME, 1L, PhoneType.COMMERCIAL, 1L), stats.getByPhoneType());
+        Assertions.assertEquals(Map.of("2000-2009", 1L, PersonCounters.UNKNOWN_BIRTH_DECADE, 1L), stats.getByBirthDecade());
+    }
+
+    @Test
+    public void subtractShouldDropCountsWhenPersonIsDeleted() {
+        counters.subtract(LocalDate.of(1990, 5, 20), List.of("SP", "RJ"), List.of(PhoneType.HOME, PhoneType.MOBILE));
+
+        PersonStatsDTO stats = counters.snapshot();
+        Assertions.assertEquals(1, stats.getTotal());
+        Assertions.assertEquals(Map.of("SP", 1L), stats.getByState());
+        Assertions.assertEquals(Map.of(PhoneType.HOME, 1L), stats.getByPhoneType());
+    }
+
+    @Test
+    public void distanceShouldSumCellDifferencesWhenCountersDrift() {
+        PersonCounters drifted = new PersonCounters();
+        drifted.add(LocalDate.of(1990, 5, 20), List.of("SP", "RJ"), List.of(PhoneType.HOME, PhoneType.MOBILE));
+
+        Assertions.assertEquals(0, PersonCounters.distance(counters.snapshot(), counters.snapshot()));
+        Assertions.assertEquals(4, PersonCounters.distance(counters.snapshot(), drifted.snapshot()));
+    }
+
+    @Test
+    public void addAllShouldSumCellsWhenRangesAreMerged() {
+        PersonCounters range = new PersonCounters();
+        range.add(LocalDate.of(1995, 1, 1), List.of("RJ"), List.of(PhoneType.MOBILE));
+
+        counters.addAll(range);
+
+        PersonStatsDTO stats = counters.snapshot();
+        Assertions.assertEquals(3, stats.getTotal());
+        Assertions.assertEquals(Map.of("RJ", 2L, "SP", 2L), stats.getByState());
+        Assertions.assertEquals(Map.of("1990-1999", 2L, PersonCounters.UNKNOWN_BIRTH_DECADE, 1L), stats.getByBirthDecade());
+    }
+}
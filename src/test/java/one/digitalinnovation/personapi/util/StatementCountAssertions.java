@@ -0,0 +1,33 @@
+package one.digitalinnovation.personapi.util;
+
+import one.digitalinnovation.personapi.statistics.StatementCounter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+public final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(long maxStatements, ThrowingSupplier<T> call) {
+        StatementCounter.Counts counts = StatementCounter.start();
+        T result;
+        try {
+            result = Assertions.assertDoesNotThrow(call);
+        }
+        finally {
+            StatementCounter.stop(counts);
+        }
+        Assertions.assertTrue(counts.getStatements() <= maxStatements, () -> "Expected at most " + maxStatements
+                + " SQL statements but " + counts.getStatements() + " were executed");
+        return result;
+    }
+
+    public static void assertMaxStatements(long maxStatements, Executable call) {
+        assertMaxStatements(maxStatements, () -> {
+            call.execute();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.personapi.util;
+
+public final class ValidCpfs {
+
+    private ValidCpfs() {
+    }
+
+    public static String of(int seed) {
+        int[] digits = new int[11];
+        long base = 200_000_000L + seed * 7_919L;
+        for (int i = 8; i >= 0; i--) {
+            digits[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digits[9] = checkDigit(digits, 9);
+        digits[10] = checkDigit(digits, 10);
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digit : digits) {
+            cpf.append(digit);
+        }
+        return cpf.toString();
+    }
+
+    private static int checkDigit(int[] digits, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += digits[i] * (length + 1 - i);
+        }
+        int digit = sum * 10 % 11;
+        return digit == 10 ? 0 : digit;
+    }
+}
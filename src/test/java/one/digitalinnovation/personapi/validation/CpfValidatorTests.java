@@ -0,0 +1,53 @@
+package one.digitalinnovation.personapi.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CpfValidatorTests {
+
+    private CpfValidator cpfValidator;
+
+    @BeforeEach
+    void setUp() throws Exception{
+        cpfValidator = new CpfValidator();
+    }
+
+    @Test
+    public void isValidShouldReturnTrueWhenRawOrFormattedValidCpf(){
+        Assertions.assertTrue(cpfValidator.isValid("44453213387", null));
+        Assertions.assertTrue(cpfValidator.isValid("444.532.133-87", null));
+        Assertions.assertTrue(cpfValidator.isValid("82737002320", null));
+        Assertions.assertTrue(cpfValidator.isValid("71428793860", null));
+    }
+
+    @Test
+    public void isValidShouldReturnTrueWhenNull(){
+        Assertions.assertTrue(cpfValidator.isValid(null, null));
+    }
+
+    @Test
+    public void isValidShouldReturnFalseWhenWrongCheckDigits(){
+        Assertions.assertFalse(cpfValidator.isValid("44453213388", null));
+        Assertions.assertFalse(cpfValidator.isValid("44453213397", null));
+        Assertions.assertFalse(cpfValidator.isValid("444.532.133-78", null));
+    }
+
+    @Test
+    public void isValidShouldReturnFalseWhenMalformedOrRepeatedDigits(){
+        Assertions.assertFalse(cpfValidator.isValid("", null));
+        Assertions.assertFalse(cpfValidator.isValid("4445321338", null));
+        Assertions.assertFalse(cpfValidator.isValid("444-532-133.87", null));
+        Assertions.assertFalse(cpfValidator.isValid("4445321338a", null));
+        Assertions.assertFalse(cpfValidator.isValid("11111111111", null));
+        Assertions.assertFalse(cpfValidator.isValid("000.000.000-00", null));
+    }
+
+    @Test
+    public void normalizeShouldStripPunctuationOnlyWhenFormattedValidCpf(){
+        Assertions.assertEquals("44453213387", CpfValidator.normalize("444.532.133-87"));
+        Assertions.assertEquals("44453213387", CpfValidator.normalize("44453213387"));
+        Assertions.assertEquals("444-532-133.87", CpfValidator.normalize("444-532-133.87"));
+        Assertions.assertNull(CpfValidator.normalize(null));
+    }
+}